@@ -4,7 +4,7 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.retry.annotation.EnableRetry;
 @SpringBootApplication
-//@EnableRetry
+@EnableRetry
 public class Main {
     public static void main(String[] args) {
         SpringApplication.run(Main.class, args);
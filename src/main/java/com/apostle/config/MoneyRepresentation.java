@@ -0,0 +1,43 @@
+package com.apostle.config;
+
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * How BigDecimal money values (balances, amounts) are stored in Mongo.
+ * Both are numeric BSON types, so $inc, range queries and $sum work on them.
+ */
+public enum MoneyRepresentation {
+
+    /** Exact decimal, e.g. 1500.50 is stored as NumberDecimal("1500.50"). */
+    DECIMAL128,
+
+    /** Whole kobo/cents as a 64-bit integer, e.g. 1500.50 is stored as 150050L. */
+    MINOR_UNITS;
+
+    public static final int MINOR_UNIT_SCALE = 2;
+
+    // Requests are validated to two decimals; anything finer reaching here is a bug, not something to round away.
+    public Object toStored(BigDecimal amount) {
+        if (this == MINOR_UNITS) {
+            if (amount.stripTrailingZeros().scale() > MINOR_UNIT_SCALE) {
+                throw new IllegalArgumentException("Amount " + amount.toPlainString()
+                        + " has more than " + MINOR_UNIT_SCALE + " decimal places");
+            }
+            return amount.setScale(MINOR_UNIT_SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        }
+        return new Decimal128(amount);
+    }
+
+    public static BigDecimal fromStored(Object stored) {
+        if (stored == null) return null;
+        if (stored instanceof Decimal128 decimal) return decimal.bigDecimalValue();
+        if (stored instanceof Long minorUnits) return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+        if (stored instanceof Integer minorUnits) return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+        if (stored instanceof String text) return new BigDecimal(text);
+        if (stored instanceof Double value) return BigDecimal.valueOf(value);
+        throw new IllegalArgumentException("Unsupported stored money value: " + stored.getClass().getName());
+    }
+}
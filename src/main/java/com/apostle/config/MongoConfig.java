@@ -0,0 +1,80 @@
+package com.apostle.config;
+
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Configuration
+public class MongoConfig {
+
+    @Value("${app.money.representation:DECIMAL128}")
+    private MoneyRepresentation moneyRepresentation;
+
+    @Bean
+    public MoneyRepresentation moneyRepresentation() {
+        return moneyRepresentation;
+    }
+
+    // Multi-document transactions need a replica set or sharded cluster, so this stays opt-in.
+    @Bean
+    @ConditionalOnProperty(name = "app.transfer.transactional", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+        return new MongoTransactionManager(mongoDatabaseFactory);
+    }
+
+    // Both readers are always registered so documents written in either mode (or migrated) stay readable.
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        Converter<BigDecimal, ?> writer = moneyRepresentation == MoneyRepresentation.MINOR_UNITS
+                ? new BigDecimalToMinorUnitsConverter()
+                : new BigDecimalToDecimal128Converter();
+        return new MongoCustomConversions(List.of(
+                writer,
+                new Decimal128ToBigDecimalConverter(),
+                new MinorUnitsToBigDecimalConverter()
+        ));
+    }
+
+    @WritingConverter
+    static class BigDecimalToDecimal128Converter implements Converter<BigDecimal, Decimal128> {
+        @Override
+        public Decimal128 convert(BigDecimal source) {
+            return (Decimal128) MoneyRepresentation.DECIMAL128.toStored(source);
+        }
+    }
+
+    @WritingConverter
+    static class BigDecimalToMinorUnitsConverter implements Converter<BigDecimal, Long> {
+        @Override
+        public Long convert(BigDecimal source) {
+            return (Long) MoneyRepresentation.MINOR_UNITS.toStored(source);
+        }
+    }
+
+    @ReadingConverter
+    static class Decimal128ToBigDecimalConverter implements Converter<Decimal128, BigDecimal> {
+        @Override
+        public BigDecimal convert(Decimal128 source) {
+            return source.bigDecimalValue();
+        }
+    }
+
+    @ReadingConverter
+    static class MinorUnitsToBigDecimalConverter implements Converter<Long, BigDecimal> {
+        @Override
+        public BigDecimal convert(Long source) {
+            return BigDecimal.valueOf(source, MoneyRepresentation.MINOR_UNIT_SCALE);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.apostle.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the @Document classes and checks that every one of them exists, before the
+ * migrations or any traffic run. Auto index creation is off, so this is the only place they get built.
+ * A missing index is logged, or stops startup when app.mongo.indexes.fail-on-missing is set.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Value("${app.mongo.indexes.create-on-startup:true}")
+    private boolean createOnStartup;
+
+    @Value("${app.mongo.indexes.fail-on-missing:false}")
+    private boolean failOnMissing;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate, MongoMappingContext mappingContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoPersistentEntityIndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        List<String> missing = new ArrayList<>();
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) continue;
+
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            List<IndexDefinition> required = new ArrayList<>();
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(required::add);
+
+            if (createOnStartup) {
+                for (IndexDefinition index : required) {
+                    try {
+                        indexOps.createIndex(index);
+                    } catch (RuntimeException e) {
+                        log.error("Could not create index {} on {}: {}",
+                                index.getIndexKeys(), entity.getCollection(), e.getMessage());
+                    }
+                }
+            }
+
+            List<IndexInfo> existing = indexOps.getIndexInfo();
+            for (IndexDefinition index : required) {
+                if (existing.stream().noneMatch(info -> matches(info, index))) {
+                    missing.add(entity.getCollection() + " " + index.getIndexKeys().toJson());
+                }
+            }
+        }
+
+        if (missing.isEmpty()) {
+            log.info("All declared Mongo indexes are present");
+            return;
+        }
+        if (failOnMissing) {
+            throw new IllegalStateException("Missing required Mongo indexes: " + missing);
+        }
+        log.warn("Missing required Mongo indexes, queries on these fields will scan: {}", missing);
+    }
+
+    // Same keys in the same order and directions, and unique where the declaration asks for it.
+    private boolean matches(IndexInfo info, IndexDefinition index) {
+        Document keys = index.getIndexKeys();
+        List<IndexField> fields = info.getIndexFields();
+        if (fields.size() != keys.size()) return false;
+
+        int position = 0;
+        for (String key : keys.keySet()) {
+            IndexField field = fields.get(position++);
+            if (!field.getKey().equals(key)) return false;
+            Object direction = keys.get(key);
+            if (direction instanceof Number number && field.getDirection() != null
+                    && (number.intValue() > 0) != field.getDirection().isAscending()) {
+                return false;
+            }
+        }
+        boolean unique = Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+        return !unique || info.isUnique();
+    }
+}
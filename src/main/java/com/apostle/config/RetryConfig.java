@@ -0,0 +1,54 @@
+package com.apostle.config;
+
+import com.apostle.services.retryService.AccountRetryBudget;
+import com.apostle.services.retryService.ConflictRetryListener;
+import com.apostle.services.retryService.ConflictRetryPolicy;
+import com.apostle.services.retryService.DecorrelatedJitterBackOffPolicy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.interceptor.RetryInterceptorBuilder;
+import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class RetryConfig {
+
+    @Value("${app.retry.conflict.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.retry.conflict.backoff-base-micros:50}")
+    private long backoffBaseMicros;
+
+    @Value("${app.retry.conflict.backoff-cap-micros:800}")
+    private long backoffCapMicros;
+
+    @Value("${app.retry.conflict.budget-per-account:20}")
+    private int budgetPerAccount;
+
+    @Value("${app.retry.conflict.budget-refill-per-second:10}")
+    private int budgetRefillPerSecond;
+
+    // Used directly around a whole Mongo transaction, which is the only place a multi-step operation can be replayed.
+    @Bean
+    public RetryTemplate conflictRetryTemplate(MeterRegistry meterRegistry) {
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new ConflictRetryPolicy(
+                maxAttempts, new AccountRetryBudget(budgetPerAccount, budgetRefillPerSecond)));
+        retryTemplate.setBackOffPolicy(new DecorrelatedJitterBackOffPolicy(
+                TimeUnit.MICROSECONDS.toNanos(backoffBaseMicros), TimeUnit.MICROSECONDS.toNanos(backoffCapMicros)));
+        retryTemplate.registerListener(new ConflictRetryListener(meterRegistry));
+        return retryTemplate;
+    }
+
+    // Referenced by name from @Retryable(interceptor = "conflictRetryInterceptor") on the single-write balance legs.
+    @Bean
+    public RetryOperationsInterceptor conflictRetryInterceptor(RetryTemplate conflictRetryTemplate) {
+        return RetryInterceptorBuilder.stateless()
+                .retryOperations(conflictRetryTemplate)
+                .build();
+    }
+}
@@ -7,6 +7,7 @@ import com.apostle.dtos.requests.RegisterRequest;
 import com.apostle.services.refreshService.RefreshTokenService;
 import com.apostle.services.authService.AuthenticationService;
 import com.apostle.services.jwtService.JwtService;
+import com.apostle.services.jwtService.VerifiedAccessToken;
 import com.apostle.services.redisService.RedisService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -17,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/v1/auth")
@@ -75,8 +77,12 @@ public class AuthenticationController {
         if (authHeader == null || !authHeader.startsWith("Bearer "))
             return ResponseEntity.badRequest().body("Missing or invalid Authorization header");
 
-        String accessToken = authHeader.substring(7);
-        authenticationService.logout(accessToken);
+        // Verified by JwtAuthenticationFilter earlier in this request; absent when the token was rejected there.
+        Optional<VerifiedAccessToken> accessToken = VerifiedAccessToken.from(request);
+        if (accessToken.isEmpty())
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired access token");
+
+        authenticationService.logout(accessToken.get());
 
         return ResponseEntity.ok("Logged out successfully");
     }
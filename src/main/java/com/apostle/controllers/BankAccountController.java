@@ -1,19 +1,28 @@
 package com.apostle.controllers;
 
 import com.apostle.dtos.requests.AddAccountRequest;
+import com.apostle.dtos.requests.BalancesRequest;
+import com.apostle.dtos.responses.AccountBalanceResponse;
+import com.apostle.dtos.responses.AccountSummaryResponse;
 import com.apostle.dtos.responses.ApiResponse;
 import com.apostle.dtos.responses.BalanceResponse;
 import com.apostle.exceptions.UserNotFoundException;
+import com.apostle.services.bankService.BalanceCache;
 import com.apostle.services.bankService.BankAccountService;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.apostle.utils.ETags;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/user")
 @PreAuthorize("hasRole('CUSTOMER')")
@@ -45,11 +54,18 @@ public class BankAccountController {
     }
 
     @GetMapping("/balance/{accountNumber}")
-    public ResponseEntity<ApiResponse> getBalance(@PathVariable String accountNumber) {
+    public ResponseEntity<ApiResponse> getBalance(@PathVariable String accountNumber,
+                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             logger.info("Fetching balance for account: {}", accountNumber);
-            BalanceResponse response = bankAccountService.getBalance(accountNumber);
-            return ResponseEntity.ok(new ApiResponse(true, "Balance retrieved successfully", response));
+            BalanceCache.CachedBalance snapshot = bankAccountService.getBalanceSnapshot(accountNumber);
+            String etag = ETags.fromVersion(snapshot.version());
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+            }
+            BalanceResponse response = new BalanceResponse(snapshot.balance());
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new ApiResponse(true, "Balance retrieved successfully", response));
         } catch (UserNotFoundException e) {
             logger.error("Account not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
@@ -58,4 +74,34 @@ public class BankAccountController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
         }
     }
+
+    @GetMapping("/accounts")
+    public ResponseEntity<ApiResponse> getAccounts() {
+        try {
+            logger.info("Fetching accounts for current user");
+            List<AccountSummaryResponse> response = bankAccountService.getAccountsForCurrentUser();
+            return ResponseEntity.ok(new ApiResponse(true, "Accounts retrieved successfully", response));
+        } catch (UserNotFoundException e) {
+            logger.error("User not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error fetching accounts: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
+        }
+    }
+
+    @PostMapping("/balances")
+    public ResponseEntity<ApiResponse> getBalances(@Valid @RequestBody BalancesRequest balancesRequest) {
+        try {
+            logger.info("Fetching balances for {} accounts", balancesRequest.accountNumbers().size());
+            List<AccountBalanceResponse> response = bankAccountService.getBalancesForCurrentUser(balancesRequest.accountNumbers());
+            return ResponseEntity.ok(new ApiResponse(true, "Balances retrieved successfully", response));
+        } catch (UserNotFoundException e) {
+            logger.error("User not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error fetching balances: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
+        }
+    }
 }
\ No newline at end of file
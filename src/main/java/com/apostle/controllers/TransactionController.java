@@ -1,21 +1,32 @@
 package com.apostle.controllers;
 
+import com.apostle.dtos.requests.BatchTransferRequest;
 import com.apostle.dtos.requests.DepositRequest;
 import com.apostle.dtos.requests.SendMoneyRequest;
 import com.apostle.dtos.responses.ApiResponse;
+import com.apostle.dtos.responses.BatchTransferResult;
+import com.apostle.dtos.responses.TransactionHistoryPage;
 import com.apostle.dtos.responses.TransactionResponse;
+import com.apostle.exceptions.IdempotencyConflictException;
 import com.apostle.exceptions.InsufficientBalanceException;
 import com.apostle.exceptions.TransactionNotFoundException;
 import com.apostle.exceptions.UserNotFoundException;
+import com.apostle.services.idempotencyService.IdempotencyService;
+import com.apostle.services.transactionService.StatementFormat;
 import com.apostle.services.transactionService.TransactionService;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.apostle.utils.ETags;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,17 +37,21 @@ import java.util.List;
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
     }
 
     @PostMapping("/deposit")
-    public ResponseEntity<ApiResponse> deposit(@Valid @RequestBody DepositRequest depositRequest) {
+    public ResponseEntity<ApiResponse> deposit(@Valid @RequestBody DepositRequest depositRequest,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             logger.info("Processing deposit for account: {}", depositRequest.receiverAccountNumber());
-            TransactionResponse response = transactionService.deposit(depositRequest);
+            TransactionResponse response = idempotencyService.execute("deposit", idempotencyKey, depositRequest,
+                    () -> transactionService.deposit(depositRequest));
             return ResponseEntity.ok(new ApiResponse(true, "Deposit successful", response));
         } catch (ConstraintViolationException e) {
             logger.error("Validation error during deposit: {}", e.getMessage());
@@ -44,6 +59,9 @@ public class TransactionController {
         } catch (UserNotFoundException e) {
             logger.error("No account found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
+        } catch (IdempotencyConflictException e) {
+            logger.error("Idempotency conflict during deposit: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, e.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error processing deposit: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
@@ -51,10 +69,12 @@ public class TransactionController {
     }
 
     @PostMapping("/transfer")
-    public ResponseEntity<ApiResponse> transfer(@Valid @RequestBody SendMoneyRequest sendMoneyRequest) {
+    public ResponseEntity<ApiResponse> transfer(@Valid @RequestBody SendMoneyRequest sendMoneyRequest,
+                                                @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         try {
             logger.info("Processing transfer from {} to {}", sendMoneyRequest.senderAccountNumber(), sendMoneyRequest.receiverAccountNumber());
-            TransactionResponse response = transactionService.transfer(sendMoneyRequest);
+            TransactionResponse response = idempotencyService.execute("transfer", idempotencyKey, sendMoneyRequest,
+                    () -> transactionService.transfer(sendMoneyRequest));
             return ResponseEntity.ok(new ApiResponse(true, "Transfer successful", response));
         } catch (ConstraintViolationException e) {
             logger.error("Validation error during transfer: {}", e.getMessage());
@@ -65,29 +85,108 @@ public class TransactionController {
         } catch (InsufficientBalanceException e) {
             logger.error("Insufficient balance: {}", e.getMessage());
             return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        } catch (IdempotencyConflictException e) {
+            logger.error("Idempotency conflict during transfer: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new ApiResponse(false, e.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error processing transfer: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse> transferBatch(@Valid @RequestBody BatchTransferRequest batchTransferRequest) {
+        try {
+            logger.info("Processing batch of {} transfers", batchTransferRequest.transfers().size());
+            List<BatchTransferResult> response = transactionService.transferBatch(batchTransferRequest.transfers());
+            return ResponseEntity.ok(new ApiResponse(true, "Batch processed", response));
+        } catch (ConstraintViolationException e) {
+            logger.error("Validation error during batch transfer: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error processing batch transfer: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
+        }
+    }
+
     @GetMapping("/account/{accountId}")
     public ResponseEntity<ApiResponse> getTransactionsForAccount(
             @PathVariable String accountId,
             @RequestParam LocalDateTime start,
             @RequestParam LocalDateTime end,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             logger.info("Fetching transactions for account: {}, from {} to {}", accountId, start, end);
+            String etag = ETags.fromVersion(transactionService.getHistoryVersion(accountId));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+            }
             List<TransactionResponse> response = transactionService.getTransactionsForAccount(accountId, start, end, page, size);
-            return ResponseEntity.ok(new ApiResponse(true, "Transactions retrieved successfully", response));
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new ApiResponse(true, "Transactions retrieved successfully", response));
+        } catch (UserNotFoundException e) {
+            logger.error("Account not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
         } catch (Exception e) {
             logger.error("Error fetching transactions: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
         }
     }
 
+    @GetMapping("/account/{accountId}/history")
+    public ResponseEntity<ApiResponse> getTransactionHistory(
+            @PathVariable String accountId,
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            logger.info("Fetching transaction history for account: {}, from {} to {}", accountId, start, end);
+            String etag = ETags.fromVersion(transactionService.getHistoryVersion(accountId));
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache().cachePrivate()).build();
+            }
+            TransactionHistoryPage response = transactionService.getTransactionHistory(accountId, start, end, cursor, size);
+            return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new ApiResponse(true, "Transactions retrieved successfully", response));
+        } catch (UserNotFoundException e) {
+            logger.error("Account not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiResponse(false, e.getMessage(), null));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid history request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(new ApiResponse(false, e.getMessage(), null));
+        } catch (Exception e) {
+            logger.error("Error fetching transaction history: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(new ApiResponse(false, "An unexpected error occurred", null));
+        }
+    }
+
+    @GetMapping("/account/{accountId}/export")
+    public ResponseEntity<?> exportTransactions(
+            @PathVariable String accountId,
+            @RequestParam LocalDateTime start,
+            @RequestParam LocalDateTime end,
+            @RequestParam(defaultValue = "csv") String format) {
+        StatementFormat statementFormat;
+        try {
+            statementFormat = StatementFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            logger.error("Unsupported export format: {}", format);
+            return ResponseEntity.badRequest().body(new ApiResponse(false, "Unsupported export format: " + format, null));
+        }
+
+        logger.info("Exporting transactions for account: {}, from {} to {} as {}", accountId, start, end, statementFormat);
+        StreamingResponseBody body = out -> transactionService.exportTransactions(accountId, start, end, statementFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"statement-" + accountId + "." + statementFormat.extension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{transactionId}")
     public ResponseEntity<ApiResponse> getTransactionById(@PathVariable String transactionId) {
         try {
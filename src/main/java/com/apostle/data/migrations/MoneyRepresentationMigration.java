@@ -0,0 +1,92 @@
+package com.apostle.data.migrations;
+
+import com.apostle.config.MoneyRepresentation;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Rewrites balances and amounts that are not yet in the configured money representation
+ * (legacy string BigDecimals, or the other numeric mode). Enabled with app.money.migrate-on-startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MoneyRepresentationMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final MoneyRepresentation moneyRepresentation;
+
+    @Value("${app.money.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!migrateOnStartup) return;
+        migrate();
+    }
+
+    public void migrate() {
+        long accounts = migrateField(mongoTemplate.getCollectionName(BankAccount.class), "balance");
+        long transactions = migrateField(mongoTemplate.getCollectionName(Transaction.class), "amount");
+        log.info("Money migration to {} complete: {} accounts, {} transactions rewritten",
+                moneyRepresentation, accounts, transactions);
+    }
+
+    private long migrateField(String collection, String field) {
+        Query query = Query.query(Criteria.where(field).type(legacyTypes()));
+        query.fields().include(field);
+
+        long migrated = 0;
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                batch.add(document);
+                if (batch.size() == BATCH_SIZE) {
+                    migrated += flush(collection, field, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) migrated += flush(collection, field, batch);
+        return migrated;
+    }
+
+    // Each update is guarded on the old value, so a balance that changed since it was read is left for the next run.
+    private long flush(String collection, String field, List<Document> batch) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        for (Document document : batch) {
+            Object legacy = document.get(field);
+            Object converted = moneyRepresentation.toStored(MoneyRepresentation.fromStored(legacy));
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(document.get("_id")).and(field).is(legacy)),
+                    Update.update(field, converted));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    private List<Type> legacyTypes() {
+        Type current = moneyRepresentation == MoneyRepresentation.MINOR_UNITS ? Type.longType() : Type.bigDecimalType();
+        return Stream.of(Type.stringType(), Type.doubleType(), Type.intType(), Type.longType(), Type.bigDecimalType())
+                .filter(type -> !type.equals(current))
+                .toList();
+    }
+}
@@ -0,0 +1,100 @@
+package com.apostle.data.migrations;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Copies the receiving account's name onto transactions written before receiverName was stored.
+ * Enabled with app.transactions.backfill-receiver-name-on-startup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReceiverNameBackfillMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.transactions.backfill-receiver-name-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!backfillOnStartup) return;
+        backfill();
+    }
+
+    public void backfill() {
+        String collection = mongoTemplate.getCollectionName(Transaction.class);
+        Query query = Query.query(Criteria.where("receiverName").exists(false));
+        query.fields().include("receiverAccountNumber");
+
+        long updated = 0;
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+        try (Stream<Document> documents = mongoTemplate.stream(query, Document.class, collection)) {
+            for (Document document : (Iterable<Document>) documents::iterator) {
+                batch.add(document);
+                if (batch.size() == BATCH_SIZE) {
+                    updated += flush(collection, batch);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) updated += flush(collection, batch);
+        log.info("Receiver name backfill complete: {} transactions updated", updated);
+    }
+
+    // One $in lookup per batch for the names, then one unordered bulk write.
+    private long flush(String collection, List<Document> batch) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (Document document : batch) {
+            String accountNumber = document.getString("receiverAccountNumber");
+            if (accountNumber != null) accountNumbers.add(accountNumber);
+        }
+        Map<String, String> names = loadNames(accountNumbers);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        int queued = 0;
+        for (Document document : batch) {
+            String name = names.get(document.getString("receiverAccountNumber"));
+            if (name == null) continue;
+            bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(document.get("_id")).and("receiverName").exists(false)),
+                    Update.update("receiverName", name));
+            queued++;
+        }
+        return queued == 0 ? 0 : bulk.execute().getModifiedCount();
+    }
+
+    private Map<String, String> loadNames(Set<String> accountNumbers) {
+        Query query = Query.query(Criteria.where("accountNumber").in(accountNumbers));
+        query.fields().include("accountNumber").include("name");
+
+        Map<String, String> names = new HashMap<>();
+        for (Document account : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(BankAccount.class))) {
+            names.put(account.getString("accountNumber"), account.getString("name"));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,81 @@
+package com.apostle.data.migrations;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.PasswordResetToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves bank accounts and password reset tokens from an embedded copy of the user to its id, as a string in
+ * userId, which is the only field the code reads. On every startup, documents that still lack userId get it
+ * copied from the embedded user with one server-side pipeline update per collection; that step only adds a field
+ * and is a no-op once done. Unsetting the embedded copy and dropping the indexes built on it is destructive, so it
+ * only runs when app.users.remove-embedded-user-on-startup is set: enable it once, with a backup.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserReferenceMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.users.remove-embedded-user-on-startup:false}")
+    private boolean removeEmbeddedUser;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        migrate();
+    }
+
+    public void migrate() {
+        long accounts = backfill(mongoTemplate.getCollectionName(BankAccount.class));
+        long tokens = backfill(mongoTemplate.getCollectionName(PasswordResetToken.class));
+        if (accounts + tokens > 0) {
+            log.info("User ids backfilled: {} accounts, {} reset tokens", accounts, tokens);
+        }
+        if (removeEmbeddedUser) {
+            removeEmbeddedUser(mongoTemplate.getCollectionName(BankAccount.class));
+            removeEmbeddedUser(mongoTemplate.getCollectionName(PasswordResetToken.class));
+        }
+    }
+
+    private long backfill(String collection) {
+        Query missing = Query.query(Criteria.where("userId").exists(false).and("user").exists(true));
+        AggregationUpdate toReference = AggregationUpdate.update()
+                .set("userId").toValue(ConvertOperators.ToString.toString("$user._id"));
+        return mongoTemplate.updateMulti(missing, toReference, collection).getModifiedCount();
+    }
+
+    private void removeEmbeddedUser(String collection) {
+        long removed = mongoTemplate.updateMulti(Query.query(Criteria.where("user").exists(true)),
+                new Update().unset("user"), collection).getModifiedCount();
+        if (removed > 0) {
+            log.info("Removed the embedded user from {} documents in {}", removed, collection);
+        }
+        dropEmbeddedUserIndexes(collection);
+    }
+
+    // Indexes on user.* fields cover nothing after the rewrite but are still maintained on every write.
+    private void dropEmbeddedUserIndexes(String collection) {
+        IndexOperations indexOps = mongoTemplate.indexOps(collection);
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            boolean onEmbeddedUser = index.getIndexFields().stream().anyMatch(field -> field.getKey().startsWith("user."));
+            if (onEmbeddedUser) {
+                indexOps.dropIndex(index.getName());
+                log.info("Dropped index {} on {}", index.getName(), collection);
+            }
+        }
+    }
+}
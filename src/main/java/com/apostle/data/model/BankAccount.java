@@ -35,5 +35,6 @@ public class BankAccount {
     private AccountType accountType;
 
 
-    private User user;
+    @Indexed
+    private String userId;
 }
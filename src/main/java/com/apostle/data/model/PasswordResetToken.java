@@ -2,6 +2,7 @@ package com.apostle.data.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -12,11 +13,15 @@ public class PasswordResetToken {
     @Id
     private String id;
 
+    // Full random UUIDs, so not unique-indexed: short codes issued earlier may repeat and would stop the build.
+    @Indexed
     private String token;
 
+    // Mongo's TTL monitor deletes a token once it has expired.
+    @Indexed(expireAfterSeconds = 0)
     private LocalDateTime expiration;
 
     private boolean used = false;
 
-    private User user;
+    private String userId;
 }
@@ -2,6 +2,7 @@ package com.apostle.data.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -15,7 +16,12 @@ public class RefreshToken {
 
         @Id
         private String id;
+        @Indexed
         private String userId;
+        // The access token subject, kept here so a refresh doesn't have to look the user up. Null on tokens
+        // issued before it was stored.
+        private String email;
+        @Indexed(unique = true)
         private String token;
         private Instant expiryDate;
         private boolean revoked = false;
@@ -4,11 +4,19 @@ package com.apostle.data.model;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+// One index per branch of the history $or (equality, then sort order); Mongo merges the two sorted scans.
+@CompoundIndexes({
+        @CompoundIndex(name = "sender_history", def = "{'senderAccountId': 1, 'type': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "receiver_history", def = "{'receiverAccountId': 1, 'type': 1, 'timestamp': -1, '_id': -1}")
+})
 @Document
 @Data
 @Builder
@@ -18,12 +26,15 @@ public class Transaction {
 
     @Id
     private String transactionId;
+    @Indexed(unique = true)
     private String transactionReference;
     private String senderAccountId;
     private String receiverAccountId;
 
     private String senderAccountNumber;
     private String receiverAccountNumber;
+    // Display name of the receiving account, captured when the entry is written.
+    private String receiverName;
 
     private BigDecimal amount;
 
@@ -2,6 +2,7 @@ package com.apostle.data.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 
@@ -11,6 +12,7 @@ public class User {
     @Id
     private String id;
     private String username;
+    @Indexed(unique = true)
     private String email;
     private String password;
 
@@ -3,18 +3,34 @@ package com.apostle.data.repositories;
 import com.apostle.data.model.BankAccount;
 import com.apostle.data.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BankAccountRepository extends MongoRepository<BankAccount, String> {
+public interface BankAccountRepository extends MongoRepository<BankAccount, String>, BankAccountRepositoryCustom {
 
     boolean existsByAccountNumber(String accountNumber);
 
     Optional<BankAccount> findByAccountNumber(String accountNumber);
 
-    Optional<BankAccount> findByUserId(String userId);
+    // Just what a balance read needs, without the name, type or owner.
+    @Query(value = "{ 'accountNumber': ?0 }", fields = "{ 'accountNumber': 1, 'balance': 1, 'version': 1 }")
+    Optional<BankAccount> findBalanceByAccountNumber(String accountNumber);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'accountNumber': 1, 'balance': 1, 'version': 1 }")
+    Optional<BankAccount> findBalanceById(String id);
+
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'accountNumber': 1, 'name': 1, 'accountType': 1, 'balance': 1, 'version': 1 }")
+    List<BankAccount> findAllByUserId(String userId);
+
+    @Query(value = "{ 'userId': ?0, 'accountNumber': { '$in': ?1 } }", fields = "{ 'accountNumber': 1, 'balance': 1, 'version': 1 }")
+    List<BankAccount> findBalancesByUserIdAndAccountNumberIn(String userId, Collection<String> accountNumbers);
+
+    List<BankAccount> findAllByAccountNumberIn(Collection<String> accountNumbers);
 
 //    Optional<BankAccount> findByUser(User user);
 }
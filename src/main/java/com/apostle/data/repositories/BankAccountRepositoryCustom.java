@@ -0,0 +1,18 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.BankAccount;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+public interface BankAccountRepositoryCustom {
+
+    Optional<BankAccount> incrementBalance(String accountNumber, BigDecimal amount);
+
+    Optional<BankAccount> decrementBalanceIfSufficient(String accountNumber, BigDecimal amount);
+
+    void incrementBalances(Map<String, BigDecimal> amounts);
+
+    BankAccount findOrCreate(BankAccount account);
+}
@@ -0,0 +1,117 @@
+package com.apostle.data.repositories;
+
+import com.apostle.config.MoneyRepresentation;
+import com.apostle.data.model.BankAccount;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+public class BankAccountRepositoryCustomImpl implements BankAccountRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final MoneyRepresentation moneyRepresentation;
+
+    public BankAccountRepositoryCustomImpl(MongoTemplate mongoTemplate, MoneyRepresentation moneyRepresentation) {
+        this.mongoTemplate = mongoTemplate;
+        this.moneyRepresentation = moneyRepresentation;
+    }
+
+    @Override
+    public Optional<BankAccount> incrementBalance(String accountNumber, BigDecimal amount) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accountNumber));
+        return applyBalanceChange(accountNumber, query, amount);
+    }
+
+    @Override
+    public Optional<BankAccount> decrementBalanceIfSufficient(String accountNumber, BigDecimal amount) {
+        Query query = Query.query(Criteria.where("accountNumber").is(accountNumber)
+                .and("balance").gte(amount));
+        return applyBalanceChange(accountNumber, query, amount.negate());
+    }
+
+    // One ordered bulk write with an unguarded $inc per account; meant for credits only. Legacy string balances
+    // among the accounts are converted first, with one indexed query, since $inc would fail on them.
+    @Override
+    public void incrementBalances(Map<String, BigDecimal> amounts) {
+        if (amounts.isEmpty()) return;
+        convertLegacyBalances(Criteria.where("accountNumber").in(amounts.keySet()));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, BankAccount.class);
+        amounts.forEach((accountNumber, amount) -> bulk.updateOne(
+                Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                new Update().inc("balance", amount).inc("version", 1)));
+        bulk.execute();
+    }
+
+    // Upsert that only writes on insert, so concurrent callers converge on the same document.
+    @Override
+    public BankAccount findOrCreate(BankAccount account) {
+        Query query = Query.query(Criteria.where("accountNumber").is(account.getAccountNumber()));
+        Update update = new Update()
+                .setOnInsert("name", account.getName())
+                .setOnInsert("balance", account.getBalance())
+                .setOnInsert("accountType", account.getAccountType())
+                .setOnInsert("version", 0L);
+        try {
+            return mongoTemplate.findAndModify(
+                    query, update, FindAndModifyOptions.options().upsert(true).returnNew(true), BankAccount.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the insert race on the unique accountNumber index; the winner's document is there now.
+            return mongoTemplate.findOne(query, BankAccount.class);
+        }
+    }
+
+    // Single findAndModify: the guard, the $inc and the version bump happen server-side in one round trip.
+    // A balance still stored as a string (before MoneyRepresentationMigration has run) can neither be $inc'd
+    // nor compared with a number, so that one account is converted in place and the change applied again.
+    // The retry happens even when this call found nothing to convert: a concurrent writer may have converted it
+    // between the failed attempt and the lookup. A failure that had nothing to do with the type costs one more try.
+    private Optional<BankAccount> applyBalanceChange(String accountNumber, Query query, BigDecimal delta) {
+        try {
+            BankAccount updated = findAndModifyBalance(query, delta);
+            if (updated != null) return Optional.of(updated);
+        } catch (DataAccessException e) {
+            log.debug("Balance change on {} failed, converting a legacy balance and retrying: {}",
+                    accountNumber, e.getMessage());
+        }
+        convertLegacyBalances(Criteria.where("accountNumber").is(accountNumber));
+        return Optional.ofNullable(findAndModifyBalance(query, delta));
+    }
+
+    private BankAccount findAndModifyBalance(Query query, BigDecimal delta) {
+        Update update = new Update()
+                .inc("balance", delta)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(
+                query, update, FindAndModifyOptions.options().returnNew(true), BankAccount.class);
+    }
+
+    // Each update is guarded on the old value, the same way MoneyRepresentationMigration does it.
+    private void convertLegacyBalances(Criteria accounts) {
+        Query legacy = Query.query(accounts.and("balance").type(Type.stringType()));
+        legacy.fields().include("balance");
+        String collection = mongoTemplate.getCollectionName(BankAccount.class);
+        List<Document> documents = mongoTemplate.find(legacy, Document.class, collection);
+        for (Document document : documents) {
+            Object stored = document.get("balance");
+            Object converted = moneyRepresentation.toStored(MoneyRepresentation.fromStored(stored));
+            mongoTemplate.updateFirst(
+                    Query.query(Criteria.where("_id").is(document.get("_id")).and("balance").is(stored)),
+                    Update.update("balance", converted),
+                    collection);
+        }
+    }
+}
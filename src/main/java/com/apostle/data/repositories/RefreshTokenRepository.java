@@ -2,11 +2,13 @@ package com.apostle.data.repositories;
 
 import com.apostle.data.model.RefreshToken;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 import java.util.List;
 import java.util.Optional;
 
-public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
+public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String>, RefreshTokenRepositoryCustom {
 
     Optional<RefreshToken> findByToken(String token);
 
@@ -15,4 +17,8 @@ public interface RefreshTokenRepository extends MongoRepository<RefreshToken, St
     void deleteByUserId(String userId);
 
     List<RefreshToken> findAllByUserId(String userId);
+
+    @Query("{ 'userId': ?0, 'revoked': false }")
+    @Update("{ '$set': { 'revoked': true } }")
+    long revokeAllByUserId(String userId);
 }
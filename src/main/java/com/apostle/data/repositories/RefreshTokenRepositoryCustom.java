@@ -0,0 +1,11 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.RefreshToken;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepositoryCustom {
+
+    Optional<RefreshToken> claimUsable(String token, Instant now);
+}
@@ -0,0 +1,29 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.RefreshToken;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public class RefreshTokenRepositoryCustomImpl implements RefreshTokenRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public RefreshTokenRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Revokes the token only if it is still usable and returns it as it was, in one findAndModify on the unique
+    // token index. Of two concurrent refreshes with the same token, exactly one gets a document back.
+    @Override
+    public Optional<RefreshToken> claimUsable(String token, Instant now) {
+        Query query = Query.query(Criteria.where("token").is(token)
+                .and("revoked").is(false)
+                .and("expiryDate").gt(now));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, Update.update("revoked", true), RefreshToken.class));
+    }
+}
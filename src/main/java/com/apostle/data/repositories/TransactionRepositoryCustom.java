@@ -0,0 +1,15 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+
+    List<Transaction> findHistoryPage(String accountId, LocalDateTime start, LocalDateTime end,
+                                      LocalDateTime beforeTimestamp, String beforeId, int limit);
+
+    Stream<Transaction> streamHistory(String accountId, LocalDateTime start, LocalDateTime end);
+}
@@ -0,0 +1,62 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.Transaction;
+import com.apostle.data.model.TransactionType;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private static final Sort HISTORY_ORDER = Sort.by(Sort.Direction.DESC, "timestamp", "_id");
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public TransactionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Keyset page ordered by (timestamp, _id) descending. When a cursor is given only rows strictly after it in
+    // that order are returned, so the cost of a page doesn't grow with how deep into the history it is.
+    @Override
+    public List<Transaction> findHistoryPage(String accountId, LocalDateTime start, LocalDateTime end,
+                                             LocalDateTime beforeTimestamp, String beforeId, int limit) {
+        Criteria criteria;
+        if (beforeTimestamp == null) {
+            criteria = historyCriteria(accountId, start, end);
+        } else {
+            Criteria afterCursor = new Criteria().orOperator(
+                    Criteria.where("timestamp").lt(beforeTimestamp),
+                    Criteria.where("timestamp").is(beforeTimestamp).and("_id").lt(new ObjectId(beforeId)));
+            criteria = new Criteria().andOperator(historyCriteria(accountId, start, end), afterCursor);
+        }
+
+        Query query = Query.query(criteria)
+                .with(HISTORY_ORDER)
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+
+    // Same rows and order as the history pages, read lazily from one server cursor; the caller must close it.
+    @Override
+    public Stream<Transaction> streamHistory(String accountId, LocalDateTime start, LocalDateTime end) {
+        Query query = Query.query(historyCriteria(accountId, start, end))
+                .with(HISTORY_ORDER)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+
+    private Criteria historyCriteria(String accountId, LocalDateTime start, LocalDateTime end) {
+        Criteria ownRows = new Criteria().orOperator(
+                Criteria.where("senderAccountId").is(accountId).and("type").is(TransactionType.DEBIT),
+                Criteria.where("receiverAccountId").is(accountId).and("type").is(TransactionType.CREDIT));
+        return new Criteria().andOperator(ownRows, Criteria.where("timestamp").gte(start).lte(end));
+    }
+}
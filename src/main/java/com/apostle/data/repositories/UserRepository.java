@@ -2,6 +2,8 @@ package com.apostle.data.repositories;
 
 import com.apostle.data.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,14 @@ import java.util.Optional;
 public interface UserRepository extends MongoRepository<User,String> {
 
     Optional<User> findUserByEmail(String email);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ '_id': 1 }")
+    Optional<User> findIdByEmail(String email);
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'email': 1 }")
+    Optional<User> findEmailById(String id);
+
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'password': ?1 } }")
+    long updatePasswordById(String id, String encodedPassword);
 }
\ No newline at end of file
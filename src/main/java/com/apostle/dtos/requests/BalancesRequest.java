@@ -0,0 +1,10 @@
+package com.apostle.dtos.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BalancesRequest(
+        @NotEmpty @Size(max = 100) List<String> accountNumbers
+) {}
@@ -1,9 +1,14 @@
 package com.apostle.dtos.requests;
 
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
 import java.math.BigDecimal;
 
 public record DepositRequest(
-        String receiverAccountNumber,
-        BigDecimal amount,
-        String note
+        @NotNull String receiverAccountNumber,
+        @NotNull @Positive @Digits(integer = 17, fraction = 2) BigDecimal amount,
+        @Size(max = 255) String note
 ) { }
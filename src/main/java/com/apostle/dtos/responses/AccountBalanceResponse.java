@@ -0,0 +1,8 @@
+package com.apostle.dtos.responses;
+
+import java.math.BigDecimal;
+
+public record AccountBalanceResponse(
+        String accountNumber,
+        BigDecimal balance
+) { }
@@ -0,0 +1,12 @@
+package com.apostle.dtos.responses;
+
+import com.apostle.data.model.AccountType;
+
+import java.math.BigDecimal;
+
+public record AccountSummaryResponse(
+        String accountNumber,
+        String name,
+        AccountType accountType,
+        BigDecimal balance
+) { }
@@ -0,0 +1,10 @@
+package com.apostle.dtos.responses;
+
+import com.apostle.data.model.TransactionStatus;
+
+public record BatchTransferResult(
+        int index,
+        TransactionStatus status,
+        String transactionReference,
+        String message
+) { }
@@ -0,0 +1,8 @@
+package com.apostle.dtos.responses;
+
+import java.util.List;
+
+public record TransactionHistoryPage(
+        List<TransactionResponse> items,
+        String nextCursor
+) { }
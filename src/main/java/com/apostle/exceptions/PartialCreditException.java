@@ -0,0 +1,18 @@
+package com.apostle.exceptions;
+
+import java.util.List;
+
+// Thrown when a bulk credit stops part way; the accounts listed were credited before it failed.
+public class PartialCreditException extends RuntimeException {
+
+    private final List<String> creditedAccountNumbers;
+
+    public PartialCreditException(String message, List<String> creditedAccountNumbers, Throwable cause) {
+        super(message, cause);
+        this.creditedAccountNumbers = List.copyOf(creditedAccountNumbers);
+    }
+
+    public List<String> getCreditedAccountNumbers() {
+        return creditedAccountNumbers;
+    }
+}
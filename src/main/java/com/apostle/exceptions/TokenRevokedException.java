@@ -0,0 +1,7 @@
+package com.apostle.exceptions;
+
+public class TokenRevokedException extends RuntimeException {
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
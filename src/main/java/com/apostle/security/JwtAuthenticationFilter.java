@@ -1,9 +1,9 @@
 package com.apostle.security;
 
 
+import com.apostle.exceptions.TokenRevokedException;
 import com.apostle.services.jwtService.JwtService;
-import com.apostle.services.redisService.RedisService;
-import io.jsonwebtoken.Claims;
+import com.apostle.services.jwtService.VerifiedAccessToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,11 +22,9 @@ import java.util.List;
 public class JwtAuthenticationFilter  extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final RedisService redisService;
 
-    public JwtAuthenticationFilter(JwtService jwtService, RedisService redisService) {
+    public JwtAuthenticationFilter(JwtService jwtService) {
         this.jwtService = jwtService;
-        this.redisService = redisService;
     }
 
     @Override
@@ -42,21 +40,18 @@ public class JwtAuthenticationFilter  extends OncePerRequestFilter {
         String jwtToken = authorizationHeader.substring(7);
 
         try {
-            if (redisService.isTokenBlacklisted(jwtToken)) {
-                SecurityContextHolder.clearContext();
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                return;
-            }
+            VerifiedAccessToken verified = jwtService.verify(jwtToken);
+            request.setAttribute(VerifiedAccessToken.REQUEST_ATTRIBUTE, verified);
 
-            Claims claims = jwtService.extractAllClaims(jwtToken);
-            String email = claims.getSubject();
-            String role = claims.get("role", String.class);
-
-            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(role));
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(email, null, authorities);
+            List<SimpleGrantedAuthority> authorities = List.of(new SimpleGrantedAuthority(verified.role()));
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(verified.subject(), null, authorities);
             SecurityContextHolder.getContext().setAuthentication(authentication);
 
 
+        }catch (TokenRevokedException exception){
+            SecurityContextHolder.clearContext();
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
         }catch (Exception exception){
             SecurityContextHolder.clearContext();
         }
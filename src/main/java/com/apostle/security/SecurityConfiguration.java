@@ -55,6 +55,7 @@ public class SecurityConfiguration {
         config.addAllowedOrigin("http://localhost:8062");
         config.addAllowedHeader("Authorization");
         config.addAllowedHeader("Content-Type");
+        config.addAllowedHeader("Idempotency-Key");
 //        config.addAllowedHeader("*");
         config.addAllowedMethod("*");
         source.registerCorsConfiguration("/**", config);
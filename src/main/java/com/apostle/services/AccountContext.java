@@ -0,0 +1,49 @@
+package com.apostle.services;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.transactionService.TransferSequencer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Unit of work for a single money operation. Each account is read from Mongo at most once, and the
+ * document returned by an atomic credit/debit replaces the cached copy, so later steps of the same
+ * operation see the post-update state without another query.
+ * When the transfer sequencer is active, the balance legs are queued on its lanes instead of written directly.
+ * Create one per operation attempt; it is not thread-safe and must not outlive the operation.
+ */
+public class AccountContext {
+
+    private final BankAccountService bankService;
+    private final TransferSequencer sequencer;
+    private final Map<String, BankAccount> accounts = new HashMap<>();
+
+    public AccountContext(BankAccountService bankService, TransferSequencer sequencer) {
+        this.bankService = bankService;
+        this.sequencer = sequencer;
+    }
+
+    public BankAccount get(String accountNumber) {
+        return accounts.computeIfAbsent(accountNumber, bankService::getAccountByAccountNumber);
+    }
+
+    public BankAccount credit(String accountNumber, BigDecimal amount) {
+        return track(sequencer.isActive()
+                ? sequencer.credit(accountNumber, amount)
+                : bankService.credit(accountNumber, amount));
+    }
+
+    public BankAccount debit(String accountNumber, BigDecimal amount) {
+        return track(sequencer.isActive()
+                ? sequencer.debit(accountNumber, amount)
+                : bankService.debit(accountNumber, amount));
+    }
+
+    public BankAccount track(BankAccount account) {
+        accounts.put(account.getAccountNumber(), account);
+        return account;
+    }
+}
@@ -4,10 +4,11 @@ import com.apostle.dtos.requests.LoginRequest;
 import com.apostle.dtos.requests.RegisterRequest;
 import com.apostle.dtos.responses.LoginResponse;
 import com.apostle.dtos.responses.RegisterResponses;
+import com.apostle.services.jwtService.VerifiedAccessToken;
 
 public interface AuthenticationService {
     RegisterResponses register(RegisterRequest registerRequest);
     LoginResponse login(LoginRequest loginRequest);
 
-    void logout(String accessToken);
+    void logout(VerifiedAccessToken accessToken);
 }
@@ -12,7 +12,8 @@ import com.apostle.dtos.responses.RegisterResponses;
 import com.apostle.exceptions.EmailNotSentException;
 import com.apostle.exceptions.InvalidLoginException;
 import com.apostle.exceptions.UserAlreadyExistException;
-import com.apostle.services.redisService.RedisService;
+import com.apostle.services.jwtService.VerifiedAccessToken;
+import com.apostle.services.redisService.TokenBlacklistService;
 import com.apostle.services.refreshService.RefreshTokenService;
 import com.apostle.services.bankService.BankAccountServiceImpl;
 import com.apostle.services.emailService.EmailServiceImpl;
@@ -49,7 +50,7 @@ public class AuthenticationServiceImpl implements AuthenticationService{
     private final BankAccountServiceImpl bankAccountService;
     private final RedisTemplate<String, Object> redisTemplate;
     private final RefreshTokenService refreshTokenService;
-    private final RedisService redisService;
+    private final TokenBlacklistService tokenBlacklistService;
 
     private static final String USER_CACHE_PREFIX = "user:";
     private static final long USER_CACHE_TTL_MINUTES = 5;
@@ -118,12 +119,9 @@ public class AuthenticationServiceImpl implements AuthenticationService{
         boolean passwordMatches = bCryptPasswordEncoder.matches(loginRequest.getPassword(), user.getPassword());
         if (!passwordMatches) throw new InvalidLoginException("Invalid credentials");
 
-        String accessToken = jwtService.generateJwtToken(user.getEmail(), user.getRole());
-        String refreshToken = refreshTokenService.createRefreshToken(user.getId(), user.getRole());
-
-        long ttl = jwtService.getRemainingValidity(accessToken);
-        redisService.addTokenForUser(user.getId(), accessToken, ttl);
-        log.info("🆕 New access token generated and cached into redis for userId={}", user.getId());
+        String accessToken = jwtService.generateJwtToken(user.getEmail(), user.getId(), user.getRole());
+        String refreshToken = refreshTokenService.createRefreshToken(user.getId(), user.getEmail(), user.getRole());
+        log.info("🆕 New access token generated for userId={}", user.getId());
 
         return new LoginResponse(
                 accessToken,
@@ -134,11 +132,10 @@ public class AuthenticationServiceImpl implements AuthenticationService{
 
 
     @Override
-    public void logout(String accessToken) {
-        String userId = jwtService.extractUserId(accessToken);
+    public void logout(VerifiedAccessToken accessToken) {
+        tokenBlacklistService.blacklistToken(accessToken.token(), accessToken.expiresAt().toEpochMilli());
 
-        long ttl = jwtService.getRemainingValidity(accessToken);
-        redisService.blacklistToken(accessToken, ttl);
+        String userId = accessToken.userId();
         log.info("🆑 Access token blacklisted for userId={}", userId);
 
         refreshTokenService.revokeAllRefreshTokensForUser(userId);
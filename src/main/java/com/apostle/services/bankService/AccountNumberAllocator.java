@@ -0,0 +1,59 @@
+package com.apostle.services.bankService;
+
+import com.apostle.utils.AccountNumbers;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out account numbers from blocks reserved with one $inc on a counter document, so each node allocates
+ * from memory and needs a round trip only once per block. Blocks never overlap, so two registrations can't
+ * race to the same number; numbers left in a block when a node stops are simply never used.
+ */
+@Component
+public class AccountNumberAllocator {
+
+    static final String COUNTERS_COLLECTION = "counters";
+    static final String COUNTER_ID = "account_number";
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+    private long next;
+    private long blockEnd;
+
+    public AccountNumberAllocator(MongoTemplate mongoTemplate,
+                                  @Value("${app.account-number.block-size:100}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.account-number.block-size must be at least 1, was " + blockSize);
+        }
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public synchronized String next() {
+        if (next >= blockEnd) {
+            reserveBlock();
+        }
+        return AccountNumbers.format(next++);
+    }
+
+    private void reserveBlock() {
+        Document counter = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(COUNTER_ID)),
+                new Update().inc("value", blockSize),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                COUNTERS_COLLECTION);
+        long end = ((Number) counter.get("value")).longValue();
+        if (end - 1 > AccountNumbers.MAX_SERIAL) {
+            throw new IllegalStateException("Account number space exhausted");
+        }
+        this.blockEnd = end;
+        this.next = end - blockSize;
+    }
+}
@@ -0,0 +1,185 @@
+package com.apostle.services.bankService;
+
+import com.apostle.data.model.BankAccount;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balances by account number, tagged with the account's version. A near cache on each node sits in front of
+ * Redis. Every credit and debit writes the new balance through, and a version only ever replaces an older one.
+ * Other nodes drop their copy when the change is announced on a Redis channel. Entries on both levels live for
+ * at most the configured staleness, which bounds what a lost announcement or failed Redis write can cost.
+ */
+@Slf4j
+@Component
+public class BalanceCache implements MessageListener {
+
+    static final String CHANNEL = "balance-invalidation";
+    private static final String KEY_PREFIX = "balance:";
+    private static final long ANY_VERSION = -1;
+
+    // Stores "version:balance" unless Redis already holds the same or a newer version.
+    private static final RedisScript<Long> PUT_IF_NEWER = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current then
+              local version = tonumber(string.match(current, '^(-?%d+):'))
+              if version and version >= tonumber(ARGV[1]) then return 0 end
+            end
+            redis.call('SET', KEYS[1], ARGV[1] .. ':' .. ARGV[2], 'PX', ARGV[3])
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, CachedBalance> local;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final boolean enabled;
+    private final long maxStalenessMillis;
+
+    public BalanceCache(StringRedisTemplate redisTemplate,
+                        RedisMessageListenerContainer listenerContainer,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.balance.cache.enabled:true}") boolean enabled,
+                        @Value("${app.balance.cache.max-entries:100000}") long maxEntries,
+                        @Value("${app.balance.cache.max-staleness-millis:2000}") long maxStalenessMillis) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.local = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(maxStalenessMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, local, "account.balances");
+        if (enabled) {
+            listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        }
+    }
+
+    public Optional<CachedBalance> get(String accountNumber) {
+        if (!enabled) return Optional.empty();
+        CachedBalance cached = local.getIfPresent(accountNumber);
+        if (cached != null) return Optional.of(cached);
+
+        cached = readRemote(accountNumber);
+        if (cached != null) putLocal(accountNumber, cached);
+        return Optional.ofNullable(cached);
+    }
+
+    // Fills the cache from a read. Nothing is announced: the value is no newer than what other nodes can load.
+    public void load(BankAccount account) {
+        if (!enabled || account.getVersion() == null) return;
+        CachedBalance balance = new CachedBalance(account.getBalance(), account.getVersion());
+        putLocal(account.getAccountNumber(), balance);
+        writeRemote(account.getAccountNumber(), balance);
+    }
+
+    // Write-through after a balance change; inside a Mongo transaction it waits for the commit.
+    public void update(BankAccount account) {
+        if (!enabled || account.getVersion() == null) return;
+        afterCommit(() -> {
+            CachedBalance balance = new CachedBalance(account.getBalance(), account.getVersion());
+            putLocal(account.getAccountNumber(), balance);
+            writeRemote(account.getAccountNumber(), balance);
+            announce(account.getAccountNumber(), balance.version());
+        });
+    }
+
+    // For bulk writes that don't return the new documents: drop every level so the next read goes to Mongo.
+    public void evict(Collection<String> accountNumbers) {
+        if (!enabled || accountNumbers.isEmpty()) return;
+        List<String> numbers = List.copyOf(accountNumbers);
+        afterCommit(() -> {
+            local.invalidateAll(numbers);
+            try {
+                redisTemplate.delete(numbers.stream().map(number -> KEY_PREFIX + number).toList());
+            } catch (RuntimeException e) {
+                log.warn("Could not evict balances from Redis: {}", e.getMessage());
+            }
+            numbers.forEach(number -> announce(number, ANY_VERSION));
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) return;
+
+        String accountNumber = parts[1];
+        long version = Long.parseLong(parts[2]);
+        CachedBalance cached = local.getIfPresent(accountNumber);
+        if (cached != null && (version == ANY_VERSION || cached.version() < version)) {
+            local.invalidate(accountNumber);
+        }
+    }
+
+    private void putLocal(String accountNumber, CachedBalance balance) {
+        local.asMap().merge(accountNumber, balance,
+                (current, candidate) -> candidate.version() >= current.version() ? candidate : current);
+    }
+
+    private CachedBalance readRemote(String accountNumber) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + accountNumber);
+            if (value == null) return null;
+            int split = value.indexOf(':');
+            return new CachedBalance(new BigDecimal(value.substring(split + 1)), Long.parseLong(value.substring(0, split)));
+        } catch (RuntimeException e) {
+            log.warn("Could not read balance {} from Redis: {}", accountNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRemote(String accountNumber, CachedBalance balance) {
+        try {
+            redisTemplate.execute(PUT_IF_NEWER, List.of(KEY_PREFIX + accountNumber),
+                    String.valueOf(balance.version()), balance.balance().toPlainString(), String.valueOf(maxStalenessMillis));
+        } catch (RuntimeException e) {
+            log.warn("Could not write balance {} to Redis: {}", accountNumber, e.getMessage());
+        }
+    }
+
+    private void announce(String accountNumber, long version) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + accountNumber + "|" + version);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish balance invalidation for {}: {}", accountNumber, e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+        action.run();
+    }
+
+    public record CachedBalance(BigDecimal balance, long version) { }
+}
@@ -4,26 +4,48 @@ import com.apostle.data.model.AccountType;
 import com.apostle.data.model.BankAccount;
 import com.apostle.data.model.User;
 import com.apostle.dtos.requests.AddAccountRequest;
+import com.apostle.dtos.responses.AccountBalanceResponse;
+import com.apostle.dtos.responses.AccountSummaryResponse;
 import com.apostle.dtos.responses.AddAccountResponse;
 import com.apostle.dtos.responses.BalanceResponse;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 public interface BankAccountService {
     BankAccount getSystemAccount();
 
+    String getSystemAccountId();
+
     BankAccount createAccountForUser(User user, AccountType accountType);
 
     AddAccountResponse addSubAccountForCurrentUser(AddAccountRequest addAccountRequest);
 
     BalanceResponse getBalance(String accountNumber);
 
-    void credit(String accountNumber, BigDecimal amount);
+    long getAccountVersion(String accountNumber);
+
+    BalanceCache.CachedBalance getBalanceSnapshot(String accountNumber);
+
+    long getAccountVersionById(String accountId);
+
+    List<AccountSummaryResponse> getAccountsForCurrentUser();
 
-    void debit(String accountNumber, BigDecimal amount);
+    List<AccountBalanceResponse> getBalancesForCurrentUser(List<String> accountNumbers);
+
+    BankAccount credit(String accountNumber, BigDecimal amount);
+
+    BankAccount debit(String accountNumber, BigDecimal amount);
+
+    // Throws PartialCreditException naming the accounts already credited when the bulk write stops part way.
+    void creditAll(Map<String, BigDecimal> amounts);
 
 //    BankAccount getAccountById(String accountId);
 
     BankAccount getAccountByAccountNumber(String accountNumber);
+
+    List<BankAccount> getAccountsByAccountNumbers(Collection<String> accountNumbers);
 }
 
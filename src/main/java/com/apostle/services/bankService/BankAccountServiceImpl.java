@@ -6,23 +6,32 @@ import com.apostle.data.model.User;
 import com.apostle.data.repositories.BankAccountRepository;
 import com.apostle.data.repositories.UserRepository;
 import com.apostle.dtos.requests.AddAccountRequest;
+import com.apostle.dtos.responses.AccountBalanceResponse;
+import com.apostle.dtos.responses.AccountSummaryResponse;
 import com.apostle.dtos.responses.AddAccountResponse;
 import com.apostle.dtos.responses.BalanceResponse;
 import com.apostle.exceptions.InsufficientBalanceException;
+import com.apostle.exceptions.PartialCreditException;
 import com.apostle.exceptions.UserNotFoundException;
+import com.apostle.utils.AccountNumbers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.Validator;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class BankAccountServiceImpl implements BankAccountService {
@@ -30,40 +39,51 @@ public class BankAccountServiceImpl implements BankAccountService {
     private final BankAccountRepository bankAccountRepository;
     private final UserRepository userRepository;
     private final Validator validator;
+    private final BalanceCache balanceCache;
+    private final AccountNumberAllocator accountNumberAllocator;
+    private static final int MAX_ALLOCATION_ATTEMPTS = 3;
+    private final Cache<String, String> accountNumbersById = CacheBuilder.newBuilder()
+            .maximumSize(100_000)
+            .build();
     public static final String  SYSTEM_ACCOUNT_ID = "SYSTEM";
+    private volatile String systemAccountId;
 
-    public BankAccountServiceImpl(BankAccountRepository bankAccountRepository, UserRepository userRepository, Validator validator) {
+    public BankAccountServiceImpl(BankAccountRepository bankAccountRepository, UserRepository userRepository,
+                                  Validator validator, BalanceCache balanceCache,
+                                  AccountNumberAllocator accountNumberAllocator) {
         this.bankAccountRepository = bankAccountRepository;
         this.userRepository = userRepository;
         this.validator = validator;
+        this.balanceCache = balanceCache;
+        this.accountNumberAllocator = accountNumberAllocator;
     }
 
+    // Provisioned by SystemAccountInitializer once the indexes exist. The id never changes, so it is read once;
+    // the account itself is read fresh so its balance is live.
     @Override
     public BankAccount getSystemAccount() {
-        return bankAccountRepository.findByAccountNumber("SYSTEM")
-                .orElseGet(() -> {
-                    BankAccount systemAccount = new BankAccount();
-                    systemAccount.setAccountNumber("SYSTEM");
-                    systemAccount.setName("Platform System Account");
-                    systemAccount.setBalance(BigDecimal.ZERO);
-                    systemAccount.setAccountType(AccountType.SYSTEM);
-                    return bankAccountRepository.save(systemAccount);
-                });
+        BankAccount systemAccount = bankAccountRepository.findByAccountNumber(SYSTEM_ACCOUNT_ID)
+                .orElseThrow(() -> new IllegalStateException("The system account has not been provisioned yet"));
+        systemAccountId = systemAccount.getId();
+        return systemAccount;
     }
 
     @Override
-    public BankAccount createAccountForUser(User user, AccountType accountType) {
-        String accountNumber = generateUniqueAccountNumber();
+    public String getSystemAccountId() {
+        String id = systemAccountId;
+        return id != null ? id : getSystemAccount().getId();
+    }
 
+    @Override
+    public BankAccount createAccountForUser(User user, AccountType accountType) {
         BankAccount account = BankAccount.builder()
-                .accountNumber(accountNumber)
                 .balance(BigDecimal.ZERO)
                 .accountType(accountType)
                 .name(user.getUsername())
-                .user(user)
+                .userId(user.getId())
                 .build();
 
-        return bankAccountRepository.save(account);
+        return insertWithNewAccountNumber(account);
     }
 
     @Override
@@ -76,16 +96,13 @@ public class BankAccountServiceImpl implements BankAccountService {
         User user = userRepository.findUserByEmail(currentUserEmail)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-        String accountNumber = generateUniqueAccountNumber();
-
         BankAccount account = new BankAccount();
         account.setName(addAccountRequest.getName());
-        account.setUser(user);
+        account.setUserId(user.getId());
         account.setName(user.getUsername());
         account.setBalance(BigDecimal.ZERO);
-        account.setAccountNumber(accountNumber);
 
-        bankAccountRepository.save(account);
+        insertWithNewAccountNumber(account);
 
         return new AddAccountResponse(
                 account.getAccountNumber(),
@@ -97,53 +114,149 @@ public class BankAccountServiceImpl implements BankAccountService {
 
     @Override
     public BalanceResponse getBalance(String  accountNumber) {
-        BankAccount account = getAccountByAccountNumber(accountNumber);
-        return new BalanceResponse( account.getBalance());
+        return new BalanceResponse(getBalanceSnapshot(accountNumber).balance());
+    }
+
+    // Every balance change bumps the version, so it identifies the balance and the account's ledger for ETags.
+    @Override
+    public long getAccountVersion(String accountNumber) {
+        return getBalanceSnapshot(accountNumber).version();
+    }
+
+    // The balance and version come from one read, so an ETag built from it always matches the body it is sent with.
+    @Override
+    public BalanceCache.CachedBalance getBalanceSnapshot(String accountNumber) {
+        requireWellFormed(accountNumber);
+        Optional<BalanceCache.CachedBalance> cached = balanceCache.get(accountNumber);
+        if (cached.isPresent()) return cached.get();
+
+        BankAccount account = bankAccountRepository.findBalanceByAccountNumber(accountNumber)
+                .orElseThrow(() -> new UserNotFoundException("Account not found"));
+        balanceCache.load(account);
+        return new BalanceCache.CachedBalance(account.getBalance(), account.getVersion());
+    }
+
+    // History is addressed by account id; the id to number mapping never changes, so it is cached for good.
+    @Override
+    public long getAccountVersionById(String accountId) {
+        String accountNumber = accountNumbersById.getIfPresent(accountId);
+        if (accountNumber != null) return getAccountVersion(accountNumber);
+
+        BankAccount account = bankAccountRepository.findBalanceById(accountId)
+                .orElseThrow(() -> new UserNotFoundException("Account not found"));
+        accountNumbersById.put(accountId, account.getAccountNumber());
+        balanceCache.load(account);
+        return account.getVersion();
+    }
+
+    @Override
+    public List<AccountSummaryResponse> getAccountsForCurrentUser() {
+        return bankAccountRepository.findAllByUserId(currentUserId()).stream()
+                .peek(balanceCache::load)
+                .map(account -> new AccountSummaryResponse(account.getAccountNumber(), account.getName(),
+                        account.getAccountType(), account.getBalance()))
+                .toList();
     }
 
+    // One $in query scoped to the caller; numbers that are malformed or belong to someone else are left out.
     @Override
-    @Transactional
-    @Retryable(
-            value = {ObjectOptimisticLockingFailureException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public void credit(String  accountNumber, BigDecimal amount) {
-        BankAccount account = getAccountByAccountNumber(accountNumber);
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public List<AccountBalanceResponse> getBalancesForCurrentUser(List<String> accountNumbers) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String accountNumber : accountNumbers) {
+            if (AccountNumbers.isWellFormed(accountNumber)) requested.add(accountNumber);
+        }
+        if (requested.isEmpty()) return List.of();
+
+        return bankAccountRepository.findBalancesByUserIdAndAccountNumberIn(currentUserId(), requested).stream()
+                .peek(balanceCache::load)
+                .map(account -> new AccountBalanceResponse(account.getAccountNumber(), account.getBalance()))
+                .toList();
+    }
+
+    @Override
+    @Retryable(interceptor = "conflictRetryInterceptor")
+    public BankAccount credit(String  accountNumber, BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InsufficientBalanceException("amount must be greater than 0");
+        }
+        requireWellFormed(accountNumber);
+        BankAccount account = bankAccountRepository.incrementBalance(accountNumber, amount)
+                .orElseThrow(() -> new UserNotFoundException("Account not found"));
+        balanceCache.update(account);
+        return account;
+    }
+
+    @Override
+    @Retryable(interceptor = "conflictRetryInterceptor")
+    public BankAccount debit(String  accountNumber, BigDecimal amount) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
             throw new InsufficientBalanceException("amount must be greater than 0");
         }
-        account.setBalance(account.getBalance().add(amount));
-        bankAccountRepository.save(account);
+        requireWellFormed(accountNumber);
+        BankAccount account = bankAccountRepository.decrementBalanceIfSufficient(accountNumber, amount)
+                .orElseThrow(() -> bankAccountRepository.existsByAccountNumber(accountNumber)
+                        ? new InsufficientBalanceException("Insufficient Balance")
+                        : new UserNotFoundException("Account not found"));
+        balanceCache.update(account);
+        return account;
     }
 
     @Override
-    @Transactional
-    @Retryable(
-            value = {ObjectOptimisticLockingFailureException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
-    public void debit(String  accountNumber, BigDecimal amount) {
-        BankAccount account = getAccountByAccountNumber(accountNumber);
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientBalanceException("Insufficient Balance");
+    public void creditAll(Map<String, BigDecimal> amounts) {
+        amounts.forEach((accountNumber, amount) -> {
+            if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                throw new InsufficientBalanceException("amount must be greater than 0");
+            }
+            requireWellFormed(accountNumber);
+        });
+        try {
+            bankAccountRepository.incrementBalances(amounts);
+        } catch (BulkOperationException e) {
+            // The bulk write is ordered, so every update before the first failed one was applied.
+            int firstFailure = e.getErrors().isEmpty() ? 0 : e.getErrors().get(0).getIndex();
+            List<String> credited = List.copyOf(amounts.keySet()).subList(0, firstFailure);
+            balanceCache.evict(credited);
+            throw new PartialCreditException("Bulk credit stopped after " + credited.size() + " accounts", credited, e);
         }
-        account.setBalance(account.getBalance().subtract(amount));
-        bankAccountRepository.save(account);
+        balanceCache.evict(amounts.keySet());
     }
 
     @Override
     public BankAccount getAccountByAccountNumber(String accountNumber) {
+        requireWellFormed(accountNumber);
         return bankAccountRepository.findByAccountNumber(accountNumber)
                 .orElseThrow(() -> new UserNotFoundException("Account not found"));
     }
 
-    private String generateUniqueAccountNumber() {
-        String accountNumber;
-        do {
-            accountNumber = String.valueOf(1000000000L + ThreadLocalRandom.current().nextLong(9000000000L));
-        } while (bankAccountRepository.existsByAccountNumber(accountNumber));
-        return accountNumber;
+    @Override
+    public List<BankAccount> getAccountsByAccountNumbers(Collection<String> accountNumbers) {
+        return bankAccountRepository.findAllByAccountNumberIn(accountNumbers);
+    }
+
+    // Allocated numbers are unique, so the insert normally succeeds first time. A duplicate means the number
+    // was taken outside the allocator, and the next one is used instead.
+    private BankAccount insertWithNewAccountNumber(BankAccount account) {
+        for (int attempt = 1; ; attempt++) {
+            account.setAccountNumber(accountNumberAllocator.next());
+            try {
+                return bankAccountRepository.insert(account);
+            } catch (DuplicateKeyException e) {
+                if (attempt == MAX_ALLOCATION_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private String currentUserId() {
+        String currentUserEmail = SecurityContextHolder.getContext().getAuthentication().getName();
+        return userRepository.findIdByEmail(currentUserEmail)
+                .orElseThrow(() -> new UserNotFoundException("User not found"))
+                .getId();
+    }
+
+    // Rejects typos and malformed input before any query reaches Mongo.
+    private void requireWellFormed(String accountNumber) {
+        if (!AccountNumbers.isWellFormed(accountNumber)) {
+            throw new UserNotFoundException("Invalid account number");
+        }
     }
 }
@@ -0,0 +1,42 @@
+package com.apostle.services.bankService;
+
+import com.apostle.config.MongoIndexInitializer;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.repositories.BankAccountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Provisions the platform's SYSTEM account. The upsert relies on the unique accountNumber index to stop two
+ * nodes starting together from each inserting one, so this runs right after {@link MongoIndexInitializer}
+ * has built that index rather than while the beans are still being created.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SystemAccountInitializer implements ApplicationRunner {
+
+    private final BankAccountRepository bankAccountRepository;
+
+    public SystemAccountInitializer(BankAccountRepository bankAccountRepository) {
+        this.bankAccountRepository = bankAccountRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        BankAccount systemAccount = new BankAccount();
+        systemAccount.setAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID);
+        systemAccount.setName("Platform System Account");
+        systemAccount.setBalance(BigDecimal.ZERO);
+        systemAccount.setAccountType(AccountType.SYSTEM);
+        BankAccount provisioned = bankAccountRepository.findOrCreate(systemAccount);
+        log.info("System account {} is ready", provisioned.getId());
+    }
+}
@@ -0,0 +1,224 @@
+package com.apostle.services.idempotencyService;
+
+import com.apostle.dtos.responses.TransactionResponse;
+import com.apostle.exceptions.IdempotencyConflictException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Runs a money movement at most once per Idempotency-Key. The first execution's response is kept in Redis,
+ * duplicates on this node wait on the in-flight execution, and duplicates on other nodes wait for the
+ * Redis entry to move from pending to done. Every entry carries a fingerprint of the request it was made for,
+ * and a key presented again with a different request is refused rather than answered with another's response.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final String PENDING = "PENDING";
+    private static final String FAILED = "FAILED";
+    // Entries are "<fingerprint>:<PENDING, FAILED or response JSON>".
+    private static final char SEPARATOR = ':';
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<TransactionTemplate> transactionTemplate;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${app.idempotency.lock-seconds:30}")
+    private long lockSeconds;
+
+    public IdempotencyService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper,
+                              ObjectProvider<TransactionTemplate> transactionTemplate) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public TransactionResponse execute(String operation, String idempotencyKey, Object request,
+                                       Supplier<TransactionResponse> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        String key = KEY_PREFIX + operation + ":" + currentPrincipal() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+
+        TransactionResponse stored = readCompleted(key, fingerprint);
+        if (stored != null) {
+            log.info("Idempotent replay for key {}", key);
+            return stored;
+        }
+
+        InFlight execution = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.putIfAbsent(key, execution);
+        if (existing != null) {
+            checkFingerprint(existing.fingerprint(), fingerprint);
+            return await(existing.response());
+        }
+
+        try {
+            TransactionResponse response = executeOnce(key, fingerprint, action);
+            execution.response().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            execution.response().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    private TransactionResponse executeOnce(String key, String fingerprint, Supplier<TransactionResponse> action) {
+        Boolean claimed = redisTemplate.opsForValue()
+                .setIfAbsent(key, fingerprint + SEPARATOR + PENDING, Duration.ofSeconds(lockSeconds));
+        if (!Boolean.TRUE.equals(claimed)) {
+            return awaitRemote(key, fingerprint);
+        }
+
+        TransactionResponse response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            releaseOrRecordFailure(key, fingerprint);
+            throw e;
+        }
+        try {
+            redisTemplate.opsForValue().set(key, fingerprint + SEPARATOR + write(response), Duration.ofHours(ttlHours));
+        } catch (RuntimeException e) {
+            // The money has moved; failing now would only invite a retry. The pending entry still holds the key
+            // until the lock expires.
+            log.error("Could not store the response for idempotency key {}: {}", key, e.getMessage());
+        }
+        return response;
+    }
+
+    // Inside a transaction a failure rolled everything back, so the key is freed for a retry. Without one, a
+    // debit may already have landed, so the key is kept and marked failed rather than replayed.
+    private void releaseOrRecordFailure(String key, String fingerprint) {
+        try {
+            if (transactionTemplate.getIfAvailable() != null) {
+                redisTemplate.delete(key);
+            } else {
+                redisTemplate.opsForValue().set(key, fingerprint + SEPARATOR + FAILED, Duration.ofHours(ttlHours));
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not record the failure for idempotency key {}: {}", key, e.getMessage());
+        }
+    }
+
+    private TransactionResponse awaitRemote(String key, String fingerprint) {
+        long deadline = System.currentTimeMillis() + Duration.ofSeconds(lockSeconds).toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            String value = redisTemplate.opsForValue().get(key);
+            if (value == null) {
+                throw new IdempotencyConflictException("Previous request with this Idempotency-Key failed, please retry");
+            }
+            String body = checkEntry(value, fingerprint);
+            if (!PENDING.equals(body)) {
+                return readResponse(body);
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new IdempotencyConflictException("A request with this Idempotency-Key is still in progress");
+    }
+
+    private TransactionResponse await(CompletableFuture<TransactionResponse> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private TransactionResponse readCompleted(String key, String fingerprint) {
+        String value = redisTemplate.opsForValue().get(key);
+        if (value == null) return null;
+        String body = checkEntry(value, fingerprint);
+        return PENDING.equals(body) ? null : readResponse(body);
+    }
+
+    // Returns the entry's body once its fingerprint is known to match.
+    private String checkEntry(String value, String fingerprint) {
+        int separator = value.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalStateException("Corrupt idempotency entry: no request fingerprint");
+        }
+        checkFingerprint(value.substring(0, separator), fingerprint);
+        return value.substring(separator + 1);
+    }
+
+    private TransactionResponse readResponse(String body) {
+        if (FAILED.equals(body)) {
+            throw new IdempotencyConflictException(
+                    "A previous request with this Idempotency-Key failed and may have been partly applied; "
+                            + "check the account history and use a new key");
+        }
+        return read(body);
+    }
+
+    private void checkFingerprint(String stored, String presented) {
+        if (!stored.equals(presented)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used for a different request");
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return Hashing.sha256().hashString(objectMapper.writeValueAsString(request), StandardCharsets.UTF_8).toString();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize request for its idempotency fingerprint", e);
+        }
+    }
+
+    private String write(TransactionResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize transaction response", e);
+        }
+    }
+
+    private TransactionResponse read(String value) {
+        try {
+            return objectMapper.readValue(value, TransactionResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not read stored transaction response", e);
+        }
+    }
+
+    private String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private record InFlight(String fingerprint, CompletableFuture<TransactionResponse> response) {
+    }
+}
@@ -2,8 +2,11 @@ package com.apostle.services.jwtService;
 
 
 import com.apostle.data.model.Role;
+import com.apostle.exceptions.TokenRevokedException;
 import com.apostle.services.redisService.TokenBlacklistService;
+import com.apostle.services.redisService.TokenEpochService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -17,65 +20,70 @@ import java.util.Date;
 public class JwtService {
 
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    @Value("${jwt.expiration}")
-    private String expiration;
-
     private final TokenBlacklistService tokenBlacklistService;
-
-    public JwtService(TokenBlacklistService tokenBlacklistService) {
+    private final TokenEpochService tokenEpochService;
+    // Both are immutable and thread-safe, so one instance serves every request.
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expirationMillis;
+
+    public JwtService(TokenBlacklistService tokenBlacklistService,
+                      TokenEpochService tokenEpochService,
+                      @Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration}") long expirationMillis) {
         this.tokenBlacklistService = tokenBlacklistService;
+        this.tokenEpochService = tokenEpochService;
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.expirationMillis = expirationMillis;
     }
 
 
-    public String generateJwtToken(String email, Role role){
+    public String generateJwtToken(String email, String userId, Role role){
         return Jwts.builder()
                 .setSubject(email)
+                .claim("uid", userId)
+                .claim("epoch", tokenEpochService.latestEpoch(userId))
                 .claim("role", "ROLE_" + role.name())
                 .claim("type", "access")
                 .setIssuedAt(new Date())
                 .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .setExpiration(new Date(System.currentTimeMillis() + Long.parseLong(expiration)))
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
                 .compact();
     }
 
     public Key getSigningKey() {
-        byte[] keyBytes = secret.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
-    public Claims extractAllClaims(String token) {
+    // One blacklist lookup, one signature check and one epoch comparison; callers share the result instead of
+    // re-parsing the token.
+    public VerifiedAccessToken verify(String token) {
         if (tokenBlacklistService.isTokenBlacklisted(token)) {
-            throw new RuntimeException("Token has been revoked");
+            throw new TokenRevokedException("Token has been revoked");
         }
 
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parser.parseClaimsJws(token).getBody();
 
         if (claims.getExpiration().before(new Date())) throw new RuntimeException("Token has expired");
 
         if (!"access".equals(claims.get("type", String.class))) throw new RuntimeException("Invalid token type");
 
-        return claims;
-    }
-
-    public long getExpiration(String token) {
-        Claims claims = extractAllClaims(token);
-        return claims.getExpiration().getTime() / 1000; // return as UNIX timestamp in seconds
-    }
+        // Tokens issued before the claims existed can't be revoked by epoch, so they are refused and the client refreshes.
+        String userId = claims.get("uid", String.class);
+        Long epoch = claims.get("epoch", Long.class);
+        if (userId == null || epoch == null) throw new RuntimeException("Invalid token claims");
+        if (epoch < tokenEpochService.currentEpoch(userId)) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
 
-    public String extractUserId(String accessToken) {
-        Claims claims = extractAllClaims(accessToken);
-        return claims.getSubject();
+        return new VerifiedAccessToken(token, claims.getSubject(), userId, claims.get("role", String.class),
+                claims.getExpiration().toInstant());
     }
 
-    public long getRemainingValidity(String accessToken) {
-        Claims claims = extractAllClaims(accessToken);
-        return claims.getExpiration().getTime() - System.currentTimeMillis();
+    public long getAccessTokenValidityMillis() {
+        return expirationMillis;
     }
 }
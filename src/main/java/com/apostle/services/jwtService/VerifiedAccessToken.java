@@ -0,0 +1,24 @@
+package com.apostle.services.jwtService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * An access token whose signature, expiry, type and revocation have been checked. JwtAuthenticationFilter
+ * creates it once per request and leaves it on the request, so later code reads the claims from here instead
+ * of parsing and checking the token again.
+ */
+public record VerifiedAccessToken(String token, String subject, String userId, String role, Instant expiresAt) {
+
+    public static final String REQUEST_ATTRIBUTE = VerifiedAccessToken.class.getName();
+
+    public static Optional<VerifiedAccessToken> from(HttpServletRequest request) {
+        return Optional.ofNullable((VerifiedAccessToken) request.getAttribute(REQUEST_ATTRIBUTE));
+    }
+
+    public long remainingValidityMillis() {
+        return expiresAt.toEpochMilli() - System.currentTimeMillis();
+    }
+}
@@ -46,15 +46,12 @@ public class PasswordRecoveryServiceImpl implements PasswordRecoveryService{
     @Override
     public void sendResetToken(ForgotPasswordRequest forgotPasswordRequest) {
         String email = forgotPasswordRequest.getEmail().toLowerCase();
-        boolean emailExists = userRepository.findUserByEmail(email).isPresent();
-        if (!emailExists){
-            throw new UserNotFoundException("User not found");
-        }
-//        String token = UUID.randomUUID().toString();
-        String token = UUID.randomUUID().toString().substring(0, 6);
+        User user = userRepository.findUserByEmail(email)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        String token = UUID.randomUUID().toString();
         PasswordResetToken passwordResetToken = new PasswordResetToken();
         passwordResetToken.setToken(token);
-        passwordResetToken.setUser(userRepository.findUserByEmail(email).get());
+        passwordResetToken.setUserId(user.getId());
         passwordResetToken.setExpiration(LocalDateTime.now().plusMinutes(10));
         passwordResetTokenRepository.save(passwordResetToken);
 
@@ -83,11 +80,13 @@ public class PasswordRecoveryServiceImpl implements PasswordRecoveryService{
             throw new InvalidResetTokenException("Token already used");
         }
 
-        User user = token.getUser();
-        user.setPassword(bCryptPasswordEncoder.encode(resetPasswordRequest.getNewPassword()));
-        userRepository.save(user);
-        token.setUsed(true);
-        passwordResetTokenRepository.save(token);
+        long updated = userRepository.updatePasswordById(token.getUserId(),
+                bCryptPasswordEncoder.encode(resetPasswordRequest.getNewPassword()));
+        if (updated == 0){
+            throw new UserNotFoundException("User not found");
+        }
+        // A used token is never valid again, so it is removed rather than kept around until it expires.
+        passwordResetTokenRepository.delete(token);
         return new ResetPasswordResponse("Password reset successful");
 
     }
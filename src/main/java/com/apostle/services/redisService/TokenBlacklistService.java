@@ -1,27 +1,211 @@
 package com.apostle.services.redisService;
 
-import org.springframework.data.redis.core.RedisTemplate;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Revoked access tokens. Redis is the source of truth; each node keeps a Bloom filter of every revoked token
+ * and a small cache of the ones it has confirmed. A token the filter has never seen is answered locally, so the
+ * common case costs no round trip, and a false positive only costs the Redis lookup that used to happen anyway.
+ * Revocations reach other nodes over a Redis channel. The filter is rebuilt from a scan of Redis on a fixed
+ * interval, which drops expired tokens and bounds how long a missed announcement can go unnoticed.
+ */
+@Slf4j
 @Service
-public class TokenBlacklistService {
+public class TokenBlacklistService implements MessageListener {
 
-    private final RedisTemplate<String, String> redisTemplate;
+    static final String CHANNEL = "token-revocation";
+    private static final String KEY_PREFIX = "blacklist:";
+    // Revocations written before the prefix existed were keyed by the raw token, which starts with the JWT header.
+    private static final String LEGACY_KEY_PATTERN = "eyJ*";
+    private static final int SCAN_BATCH = 1000;
 
-    public TokenBlacklistService(RedisTemplate<String, String> redisTemplate) {
+    // Writes the entry and announces it in one round trip.
+    private static final RedisScript<Long> REVOKE = new DefaultRedisScript<>("""
+            redis.call('SET', KEYS[1], 'revoked', 'PX', ARGV[1])
+            return redis.call('PUBLISH', ARGV[2], ARGV[3])
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> recentlyRevoked;
+    private final long rebuildIntervalSeconds;
+    private final ScheduledExecutorService rebuilder;
+    private final Counter answeredLocally;
+    private final Counter confirmedRevoked;
+    private final Counter falsePositives;
+    // Null until the first scan finishes; until then every check goes to Redis.
+    private volatile BloomFilter<CharSequence> filter;
+    // Set while a rebuild is scanning, so revocations made during the scan also land in the replacement.
+    private volatile BloomFilter<CharSequence> next;
+    private boolean legacyKeysMigrated;
+
+    public TokenBlacklistService(StringRedisTemplate redisTemplate,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.token-blacklist.filter.enabled:true}") boolean filterEnabled,
+                                 @Value("${app.token-blacklist.filter.expected-insertions:100000}") long expectedInsertions,
+                                 @Value("${app.token-blacklist.filter.false-positive-rate:0.001}") double falsePositiveRate,
+                                 @Value("${app.token-blacklist.filter.rebuild-interval-seconds:60}") long rebuildIntervalSeconds,
+                                 @Value("${app.token-blacklist.recent.max-entries:10000}") long recentMaxEntries,
+                                 @Value("${jwt.expiration}") long accessTokenValidityMillis) {
         this.redisTemplate = redisTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalSeconds = rebuildIntervalSeconds;
+        // A revoked token stays revoked until it expires, so a confirmed entry never goes stale.
+        this.recentlyRevoked = CacheBuilder.newBuilder()
+                .maximumSize(recentMaxEntries)
+                .expireAfterWrite(accessTokenValidityMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.answeredLocally = meterRegistry.counter("token.blacklist.checks", "result", "filtered");
+        this.confirmedRevoked = meterRegistry.counter("token.blacklist.checks", "result", "revoked");
+        this.falsePositives = meterRegistry.counter("token.blacklist.checks", "result", "false_positive");
+
+        if (!filterEnabled) {
+            this.rebuilder = null;
+            return;
+        }
+        // Subscribe before the first scan so nothing revoked while it runs is missed.
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-blacklist-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        if (rebuilder != null) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalSeconds, TimeUnit.SECONDS);
+        }
     }
 
     public void blacklistToken(String token, long expirationMillis) {
         long ttl = expirationMillis - System.currentTimeMillis();
+        if (ttl <= 0) return;
+
+        redisTemplate.execute(REVOKE, List.of(KEY_PREFIX + token), String.valueOf(ttl), CHANNEL, token);
+        remember(token);
+    }
+
+    public boolean isTokenBlacklisted(String token) {
+        if (recentlyRevoked.getIfPresent(token) != null) return true;
+
+        BloomFilter<CharSequence> current = filter;
+        if (current != null && !current.mightContain(token)) {
+            answeredLocally.increment();
+            return false;
+        }
+
+        boolean revoked = Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + token));
+        if (revoked) {
+            recentlyRevoked.put(token, Boolean.TRUE);
+            confirmedRevoked.increment();
+        } else if (current != null) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        remember(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (rebuilder != null) rebuilder.shutdownNow();
+    }
+
+    private void remember(String token) {
+        recentlyRevoked.put(token, Boolean.TRUE);
+        BloomFilter<CharSequence> current = filter;
+        if (current != null) current.put(token);
+        BloomFilter<CharSequence> replacement = next;
+        if (replacement != null) replacement.put(token);
+    }
+
+    void rebuild() {
+        try {
+            if (!legacyKeysMigrated) {
+                migrateLegacyKeys();
+                legacyKeysMigrated = true;
+            }
+            BloomFilter<CharSequence> replacement =
+                    BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+            next = replacement;
+            try (Cursor<String> keys = redisTemplate.scan(scanOptions(KEY_PREFIX + "*"))) {
+                keys.forEachRemaining(key -> replacement.put(key.substring(KEY_PREFIX.length())));
+            }
+            if (replacement.approximateElementCount() > expectedInsertions) {
+                log.warn("Token blacklist holds about {} tokens, more than the {} the filter is sized for",
+                        replacement.approximateElementCount(), expectedInsertions);
+            }
+            filter = replacement;
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the token blacklist filter: {}", e.getMessage());
+        } finally {
+            next = null;
+        }
+    }
+
+    // RENAME keeps the remaining TTL, so old revocations stay in force for exactly as long as before.
+    private void migrateLegacyKeys() {
+        try (Cursor<String> keys = redisTemplate.scan(scanOptions(LEGACY_KEY_PATTERN))) {
+            keys.forEachRemaining(key -> {
+                try {
+                    redisTemplate.rename(key, KEY_PREFIX + key);
+                } catch (RuntimeException e) {
+                    copyLegacyKey(key);
+                }
+            });
+        }
+    }
+
+    // On a Redis cluster the old and new names usually hash to different slots and RENAME refuses with CROSSSLOT,
+    // so the entry is copied with its remaining TTL and the old key dropped instead.
+    private void copyLegacyKey(String key) {
+        Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        if (ttl == null || (ttl <= 0 && ttl != -1)) {
+            log.debug("Legacy blacklist key expired before it could be renamed");
+            return;
+        }
         if (ttl > 0) {
-            redisTemplate.opsForValue().set(token, "revoked", ttl, TimeUnit.MILLISECONDS);
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, "revoked", ttl, TimeUnit.MILLISECONDS);
+        } else {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, "revoked");
         }
+        redisTemplate.delete(key);
     }
 
-    public boolean isTokenBlacklisted(String token) {
-        return redisTemplate.hasKey(token);
+    private static ScanOptions scanOptions(String pattern) {
+        return ScanOptions.scanOptions().match(pattern).count(SCAN_BATCH).build();
     }
 }
@@ -0,0 +1,88 @@
+package com.apostle.services.redisService;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A counter per user that every access token carries as its "epoch" claim. Signing out everywhere increments
+ * the counter, which invalidates every token issued before it in one write. Users who never did so have no key
+ * and are at epoch 0. Each node caches epochs for at most the configured staleness and applies increments
+ * announced by other nodes as soon as they arrive, so a lost announcement costs at most that long.
+ */
+@Service
+public class TokenEpochService implements MessageListener {
+
+    static final String CHANNEL = "token-epoch";
+    private static final String KEY_PREFIX = "token-epoch:";
+
+    // Increments and announces the new epoch in one round trip.
+    private static final RedisScript<Long> INCREMENT = new DefaultRedisScript<>("""
+            local epoch = redis.call('INCR', KEYS[1])
+            redis.call('PUBLISH', ARGV[1], ARGV[2] .. '|' .. epoch)
+            return epoch
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Long> local;
+
+    public TokenEpochService(StringRedisTemplate redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.token-epoch.cache.max-entries:100000}") long maxEntries,
+                             @Value("${app.token-epoch.cache.max-staleness-millis:5000}") long maxStalenessMillis) {
+        this.redisTemplate = redisTemplate;
+        this.local = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(maxStalenessMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, local, "token.epochs");
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public long currentEpoch(String userId) {
+        Long cached = local.getIfPresent(userId);
+        if (cached != null) return cached;
+        return latestEpoch(userId);
+    }
+
+    // Always read from Redis. Tokens are stamped with this rather than the cached value, which can be up to the
+    // staleness behind a sign-out made on another node and would mint a token that sign-out already retired.
+    public long latestEpoch(String userId) {
+        String value = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+        return raise(userId, value == null ? 0 : Long.parseLong(value));
+    }
+
+    // Every token issued to the user so far carries a lower epoch from now on.
+    public void revokeAll(String userId) {
+        Long epoch = redisTemplate.execute(INCREMENT, List.of(KEY_PREFIX + userId), CHANNEL, userId);
+        if (epoch != null) raise(userId, epoch);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 2);
+        if (parts.length != 2) return;
+        raise(parts[0], Long.parseLong(parts[1]));
+    }
+
+    // Epochs only move forward, so a late read never undoes an increment already seen.
+    private long raise(String userId, long epoch) {
+        return local.asMap().merge(userId, epoch, Math::max);
+    }
+}
@@ -2,10 +2,13 @@ package com.apostle.services.refreshService;
 
 import com.apostle.data.model.RefreshToken;
 import com.apostle.data.model.Role;
+import com.apostle.data.model.User;
 import com.apostle.data.repositories.RefreshTokenRepository;
+import com.apostle.data.repositories.UserRepository;
 import com.apostle.exceptions.InvalidLoginException;
 import com.apostle.services.jwtService.JwtService;
 import com.apostle.services.redisService.RedisService;
+import com.apostle.services.redisService.TokenEpochService;
 import com.apostle.utils.RefreshTokenGenerator;
 import com.google.common.hash.Hashing;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +18,6 @@ import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -26,17 +28,20 @@ public class RefreshTokenService {
     private final RefreshTokenRepository refreshTokenRepository;
     private final RedisService redisService;
     private final JwtService jwtService;
+    private final TokenEpochService tokenEpochService;
+    private final UserRepository userRepository;
 
     @Value("${jwt.refreshExpiration}")
     private long refreshExpiration;
 
 
-    public String createRefreshToken(String userId, Role userRole) {
+    public String createRefreshToken(String userId, String email, Role userRole) {
         String rawToken = RefreshTokenGenerator.generateRefreshToken();
         String hashedToken = RefreshTokenGenerator.hashToken(rawToken);
 
         RefreshToken refreshToken = new RefreshToken();
         refreshToken.setUserId(userId);
+        refreshToken.setEmail(email);
         refreshToken.setRevoked(false);
         refreshToken.setRole(userRole);
         refreshToken.setToken(hashedToken);
@@ -51,39 +56,20 @@ public class RefreshTokenService {
     }
 
     public boolean validateRefreshToken(String token) {
-        String hashedToken = RefreshTokenGenerator.hashToken(token);
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(hashedToken)
-                .orElseThrow(() -> new InvalidLoginException("Invalid refresh token"));
-
-        if (refreshToken.isRevoked() || refreshToken.getExpiryDate().isBefore(Instant.now())) {
-            throw new InvalidLoginException("Expired or revoked refresh token");
-        }
-
+        findUsableToken(token);
         return true;
     }
 
 
     public void revokeAllRefreshTokensForUser(String userId) {
-        List<RefreshToken> tokens = refreshTokenRepository.findAllByUserId(userId);
-        for (RefreshToken token : tokens) {
-            token.setRevoked(true);
-            refreshTokenRepository.save(token);
-        }
-
+        refreshTokenRepository.revokeAllByUserId(userId);
         redisService.deleteCachedRefreshToken(userId);
     }
 
 
 
     public void revokeAllAccessTokensForUser(String userId) {
-        List<String> activeToken = redisService.getTokensForUser(userId);
-        for (String token : activeToken) {
-            long expiration = jwtService.getExpiration(token);
-            long now = System.currentTimeMillis() / 1000;
-            long ttl = expiration - now;
-            redisService.blacklistToken(token, ttl);
-        }
-        redisService.removeUserActiveTokens(userId);
+        tokenEpochService.revokeAll(userId);
     }
 
 
@@ -102,18 +88,29 @@ public class RefreshTokenService {
     }
 
 
+    // The presented token is claimed (revoked) atomically, so two refreshes racing with the same token can't both
+    // mint a pair; the claim returns the email too. One more update revokes the user's other tokens. The cached
+    // hash is not deleted here because createRefreshToken overwrites it with the new one.
     public Map<String, String> refreshAccessToken(String refreshToken) {
-        if (!validateRefreshToken(refreshToken)) throw new InvalidLoginException("Invalid or expired refresh token");
-
-        String userId = getUserIdFromRefreshToken(refreshToken);
-        Role role = getRoleFromRefreshToken(refreshToken);
-        revokeAllRefreshTokensForUser(userId);
+        RefreshToken current = refreshTokenRepository
+                .claimUsable(RefreshTokenGenerator.hashToken(refreshToken), Instant.now())
+                .orElseThrow(() -> {
+                    // Only reached on failure: reports why the token was refused.
+                    findUsableToken(refreshToken);
+                    return new InvalidLoginException("Expired or revoked refresh token");
+                });
+        String userId = current.getUserId();
+        Role role = current.getRole();
+        refreshTokenRepository.revokeAllByUserId(userId);
+
+        // The access token subject is the email, the same as at login.
+        String email = current.getEmail() != null ? current.getEmail() : userRepository.findEmailById(userId)
+                .map(User::getEmail)
+                .orElseThrow(() -> new InvalidLoginException("Invalid refresh token"));
 
-        String newAccessToken = jwtService.generateJwtToken(userId, role);
-        String newRefreshToken = createRefreshToken(userId, role);
-        long ttl = jwtService.getRemainingValidity(newAccessToken);
-        redisService.addTokenForUser(userId, newAccessToken, ttl);
-        log.info("New access token generated and cached into redis for userId={}", userId);
+        String newAccessToken = jwtService.generateJwtToken(email, userId, role);
+        String newRefreshToken = createRefreshToken(userId, email, role);
+        log.info("New access token generated for userId={}", userId);
 
         return Map.of(
                 "accessToken", newAccessToken,
@@ -121,4 +118,15 @@ public class RefreshTokenService {
         );
     }
 
+    private RefreshToken findUsableToken(String token) {
+        String hashedToken = RefreshTokenGenerator.hashToken(token);
+        RefreshToken refreshToken = refreshTokenRepository.findByToken(hashedToken)
+                .orElseThrow(() -> new InvalidLoginException("Invalid refresh token"));
+
+        if (refreshToken.isRevoked() || refreshToken.getExpiryDate().isBefore(Instant.now())) {
+            throw new InvalidLoginException("Expired or revoked refresh token");
+        }
+        return refreshToken;
+    }
+
 }
@@ -0,0 +1,56 @@
+package com.apostle.services.retryService;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per account number. Every conflict retry on an account spends a token, so a hot account
+ * cannot turn one burst of conflicts into an unbounded retry storm; once its bucket is empty, callers give up.
+ */
+public class AccountRetryBudget {
+
+    private final int capacity;
+    private final double refillPerNano;
+    private final Cache<String, Bucket> buckets = CacheBuilder.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterAccess(1, TimeUnit.MINUTES)
+            .build();
+
+    public AccountRetryBudget(int capacity, int refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerSecond / 1_000_000_000d;
+    }
+
+    public boolean tryAcquire(List<String> accountNumbers) {
+        for (String accountNumber : accountNumbers) {
+            if (!bucket(accountNumber).tryAcquire()) return false;
+        }
+        return true;
+    }
+
+    private Bucket bucket(String accountNumber) {
+        try {
+            return buckets.get(accountNumber, Bucket::new);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private class Bucket {
+        private double tokens = capacity;
+        private long lastRefill = System.nanoTime();
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+}
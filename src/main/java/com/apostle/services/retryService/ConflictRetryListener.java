@@ -0,0 +1,82 @@
+package com.apostle.services.retryService;
+
+import com.apostle.dtos.requests.DepositRequest;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.interceptor.MethodInvocationRetryCallback;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publishes bank.contention.conflicts / retries / giveups per operation, and tells the
+ * policy which accounts an invocation touches so it can charge their retry budgets.
+ */
+public class ConflictRetryListener implements RetryListener {
+
+    private static final String OPERATION = "conflictRetry.operation";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConflictRetryListener(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <T, E extends Throwable> boolean open(RetryContext context, RetryCallback<T, E> callback) {
+        if (callback instanceof MethodInvocationRetryCallback<?, ?> invocationCallback) {
+            context.setAttribute(OPERATION, invocationCallback.getInvocation().getMethod().getName());
+            context.setAttribute(ConflictRetryPolicy.ACCOUNTS, accountsOf(invocationCallback.getInvocation().getArguments()));
+        }
+        return true;
+    }
+
+    // For callers that use the retry template directly rather than through @Retryable.
+    public static void describe(RetryContext context, String operation, List<String> accounts) {
+        context.setAttribute(OPERATION, operation);
+        context.setAttribute(ConflictRetryPolicy.ACCOUNTS, accounts);
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (ConflictRetryPolicy.isConflict(throwable)) {
+            counter("bank.contention.conflicts", context).increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        int failures = context.getRetryCount();
+        int retries = throwable == null ? failures : failures - 1;
+        if (retries > 0) {
+            counter("bank.contention.retries", context).increment(retries);
+        }
+        if (throwable != null && ConflictRetryPolicy.isConflict(throwable)) {
+            counter("bank.contention.giveups", context).increment();
+        }
+    }
+
+    private Counter counter(String name, RetryContext context) {
+        Object operation = context.getAttribute(OPERATION);
+        return meterRegistry.counter(name, "operation", operation == null ? "unknown" : operation.toString());
+    }
+
+    private static List<String> accountsOf(Object[] arguments) {
+        List<String> accounts = new ArrayList<>();
+        for (Object argument : arguments) {
+            if (argument instanceof SendMoneyRequest request) {
+                accounts.add(request.senderAccountNumber());
+                accounts.add(request.receiverAccountNumber());
+            } else if (argument instanceof DepositRequest request) {
+                accounts.add(request.receiverAccountNumber());
+            } else if (argument instanceof String accountNumber && accounts.isEmpty()) {
+                accounts.add(accountNumber);
+            }
+        }
+        return accounts;
+    }
+}
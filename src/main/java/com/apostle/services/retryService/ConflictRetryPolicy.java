@@ -0,0 +1,84 @@
+package com.apostle.services.retryService;
+
+import com.mongodb.MongoException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.TransientClientSessionException;
+import org.springframework.data.mongodb.TransientMongoDbException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Retries write conflicts only. A conflict raised inside an active transaction is never retried in place:
+ * the transaction is already aborted, so the retry belongs to the outermost transactional boundary.
+ */
+public class ConflictRetryPolicy implements RetryPolicy {
+
+    static final String ACCOUNTS = "conflictRetry.accounts";
+    private static final String BUDGET_GRANTED = "conflictRetry.budgetGranted";
+    private static final int WRITE_CONFLICT = 112;
+
+    private final int maxAttempts;
+    private final AccountRetryBudget budget;
+
+    public ConflictRetryPolicy(int maxAttempts, AccountRetryBudget budget) {
+        this.maxAttempts = maxAttempts;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        Throwable lastThrowable = context.getLastThrowable();
+        if (lastThrowable == null) return true;
+        if (!isConflict(lastThrowable)) return false;
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return false;
+        if (context.getRetryCount() >= maxAttempts) return false;
+
+        // RetryTemplate asks twice per failed attempt, so only draw from the budget once per attempt.
+        Object granted = context.getAttribute(BUDGET_GRANTED);
+        if (granted != null) return (Integer) granted == context.getRetryCount();
+        if (!budget.tryAcquire(accounts(context))) return false;
+        context.setAttribute(BUDGET_GRANTED, context.getRetryCount());
+        return true;
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        return new RetryContextSupport(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+    }
+
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        ((RetryContextSupport) context).registerThrowable(throwable);
+        context.removeAttribute(BUDGET_GRANTED);
+    }
+
+    public static boolean isConflict(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockingFailureException
+                    || cause instanceof TransientMongoDbException
+                    || cause instanceof TransientClientSessionException) {
+                return true;
+            }
+            if (cause instanceof MongoException mongoException
+                    && (mongoException.getCode() == WRITE_CONFLICT
+                    || mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> accounts(RetryContext context) {
+        Object accounts = context.getAttribute(ACCOUNTS);
+        return accounts == null ? List.of() : (List<String>) accounts;
+    }
+}
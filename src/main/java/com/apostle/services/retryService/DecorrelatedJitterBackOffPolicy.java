@@ -0,0 +1,50 @@
+package com.apostle.services.retryService;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.backoff.BackOffContext;
+import org.springframework.retry.backoff.BackOffInterruptedException;
+import org.springframework.retry.backoff.BackOffPolicy;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Decorrelated jitter: each pause is drawn from [base, 3 * previous pause] and capped.
+ * Works in nanoseconds because a write conflict clears in well under a millisecond.
+ */
+public class DecorrelatedJitterBackOffPolicy implements BackOffPolicy {
+
+    private final long baseNanos;
+    private final long capNanos;
+
+    public DecorrelatedJitterBackOffPolicy(long baseNanos, long capNanos) {
+        this.baseNanos = baseNanos;
+        this.capNanos = capNanos;
+    }
+
+    @Override
+    public BackOffContext start(RetryContext context) {
+        return new JitterContext(baseNanos);
+    }
+
+    @Override
+    public void backOff(BackOffContext backOffContext) throws BackOffInterruptedException {
+        JitterContext context = (JitterContext) backOffContext;
+        long upper = Math.min(capNanos, context.previousNanos * 3);
+        long pause = ThreadLocalRandom.current().nextLong(baseNanos, Math.max(baseNanos, upper) + 1);
+        context.previousNanos = pause;
+
+        LockSupport.parkNanos(pause);
+        if (Thread.interrupted()) {
+            throw new BackOffInterruptedException("Thread interrupted while backing off");
+        }
+    }
+
+    private static class JitterContext implements BackOffContext {
+        private long previousNanos;
+
+        JitterContext(long previousNanos) {
+            this.previousNanos = previousNanos;
+        }
+    }
+}
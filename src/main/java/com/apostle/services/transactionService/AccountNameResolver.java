@@ -0,0 +1,49 @@
+package com.apostle.services.transactionService;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.services.bankService.BankAccountService;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Account number to display name, for history rows that predate the stored receiverName. Misses for a whole
+ * page are loaded with a single $in query and kept in a bounded cache.
+ */
+@Component
+public class AccountNameResolver {
+
+    private final BankAccountService bankService;
+    private final Cache<String, String> names;
+
+    public AccountNameResolver(BankAccountService bankService,
+                               @Value("${app.history.name-cache.max-size:10000}") long maxSize,
+                               @Value("${app.history.name-cache.expire-minutes:10}") long expireMinutes) {
+        this.bankService = bankService;
+        this.names = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireMinutes, TimeUnit.MINUTES)
+                .build();
+    }
+
+    public Map<String, String> resolve(Set<String> accountNumbers) {
+        Map<String, String> resolved = new HashMap<>(names.getAllPresent(accountNumbers));
+        if (resolved.size() == accountNumbers.size()) return resolved;
+
+        Set<String> missing = new HashSet<>(accountNumbers);
+        missing.removeAll(resolved.keySet());
+        for (BankAccount account : bankService.getAccountsByAccountNumbers(missing)) {
+            if (account.getName() == null) continue;
+            names.put(account.getAccountNumber(), account.getName());
+            resolved.put(account.getAccountNumber(), account.getName());
+        }
+        return resolved;
+    }
+}
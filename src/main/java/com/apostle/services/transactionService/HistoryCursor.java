@@ -0,0 +1,41 @@
+package com.apostle.services.transactionService;
+
+import com.apostle.data.model.Transaction;
+import org.bson.types.ObjectId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an account's history: the (timestamp, id) of the last row handed out. Clients only ever see it
+ * as an opaque base64url token.
+ */
+record HistoryCursor(LocalDateTime timestamp, String transactionId) {
+
+    private static final char SEPARATOR = '|';
+
+    static HistoryCursor after(Transaction transaction) {
+        return new HistoryCursor(transaction.getTimestamp(), transaction.getTransactionId());
+    }
+
+    String encode() {
+        String raw = timestamp.toString() + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            String id = raw.substring(split + 1);
+            if (split <= 0 || !ObjectId.isValid(id)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, split)), id);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.apostle.services.transactionService;
+
+import com.apostle.dtos.responses.TransactionResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Transaction receipts by reference. A transaction never changes once written, so entries are never invalidated,
+ * only evicted. The local cache is bounded by entry count and by estimated bytes; Redis, when enabled, is a
+ * shared second level so a receipt written on one node is a hit on the others.
+ */
+@Slf4j
+@Component
+public class ReceiptCache {
+
+    private static final String KEY_PREFIX = "receipt:";
+
+    private final Cache<String, TransactionResponse> local;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean redisEnabled;
+    private final Duration redisTtl;
+
+    public ReceiptCache(StringRedisTemplate redisTemplate,
+                        ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.receipts.cache.max-entries:50000}") long maxEntries,
+                        @Value("${app.receipts.cache.max-bytes:33554432}") long maxBytes,
+                        @Value("${app.receipts.cache.redis-enabled:false}") boolean redisEnabled,
+                        @Value("${app.receipts.cache.redis-ttl-hours:24}") long redisTtlHours) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("app.receipts.cache.max-entries must be at least 1, was " + maxEntries);
+        }
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("app.receipts.cache.max-bytes must be at least 1, was " + maxBytes);
+        }
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.redisEnabled = redisEnabled;
+        this.redisTtl = Duration.ofHours(redisTtlHours);
+
+        // Every entry weighs at least maxBytes / maxEntries, so the weight limit also caps the entry count.
+        int minimumWeight = (int) Math.max(1, maxBytes / maxEntries);
+        this.local = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String reference, TransactionResponse receipt) -> Math.max(estimateBytes(receipt), minimumWeight))
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, local, "transaction.receipts");
+    }
+
+    public Optional<TransactionResponse> get(String reference) {
+        TransactionResponse receipt = local.getIfPresent(reference);
+        if (receipt != null || !redisEnabled) return Optional.ofNullable(receipt);
+
+        receipt = readRemote(reference);
+        if (receipt != null) local.put(reference, receipt);
+        return Optional.ofNullable(receipt);
+    }
+
+    // Inside a Mongo transaction the receipt is only published once the transaction commits.
+    public void put(TransactionResponse receipt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    store(receipt);
+                }
+            });
+            return;
+        }
+        store(receipt);
+    }
+
+    private void store(TransactionResponse receipt) {
+        local.put(receipt.transactionReference(), receipt);
+        if (!redisEnabled) return;
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + receipt.transactionReference(),
+                    objectMapper.writeValueAsString(receipt), redisTtl);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not store receipt {} in Redis: {}", receipt.transactionReference(), e.getMessage());
+        }
+    }
+
+    private TransactionResponse readRemote(String reference) {
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + reference);
+            return json == null ? null : objectMapper.readValue(json, TransactionResponse.class);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not read receipt {} from Redis: {}", reference, e.getMessage());
+            return null;
+        }
+    }
+
+    // Rough heap footprint: object headers and fields plus two bytes per string character.
+    private static int estimateBytes(TransactionResponse receipt) {
+        int chars = length(receipt.transactionReference()) + length(receipt.note()) + length(receipt.receiverName());
+        return 256 + 2 * chars;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
@@ -2,9 +2,13 @@ package com.apostle.services.transactionService;
 
 import com.apostle.dtos.requests.DepositRequest;
 import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.BatchTransferResult;
+import com.apostle.dtos.responses.TransactionHistoryPage;
 import com.apostle.dtos.responses.TransactionResponse;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -12,6 +16,10 @@ import java.util.List;
 public interface TransactionService {
     TransactionResponse deposit(DepositRequest request);
     TransactionResponse transfer(SendMoneyRequest request);
+    List<BatchTransferResult> transferBatch(List<SendMoneyRequest> requests);
     List<TransactionResponse> getTransactionsForAccount(String accountId, LocalDateTime start, LocalDateTime end, int page, int size);
+    long getHistoryVersion(String accountId);
+    TransactionHistoryPage getTransactionHistory(String accountId, LocalDateTime start, LocalDateTime end, String cursor, int size);
+    void exportTransactions(String accountId, LocalDateTime start, LocalDateTime end, StatementFormat format, OutputStream out) throws IOException;
     TransactionResponse getTransactionById(String  transactionId);
 }
@@ -1,5 +1,6 @@
 package com.apostle.services.transactionService;
 
+import com.apostle.config.MoneyRepresentation;
 import com.apostle.controllers.TransactionController;
 import com.apostle.data.model.BankAccount;
 import com.apostle.data.model.Transaction;
@@ -8,56 +9,85 @@ import com.apostle.data.model.TransactionType;
 import com.apostle.data.repositories.TransactionRepository;
 import com.apostle.dtos.requests.DepositRequest;
 import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.BatchTransferResult;
+import com.apostle.dtos.responses.TransactionHistoryPage;
 import com.apostle.dtos.responses.TransactionResponse;
+import com.apostle.exceptions.InsufficientBalanceException;
+import com.apostle.exceptions.PartialCreditException;
 import com.apostle.exceptions.TransactionNotFoundException;
+import com.apostle.exceptions.UserNotFoundException;
+import com.apostle.services.AccountContext;
 import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.bankService.BankAccountServiceImpl;
+import com.apostle.services.retryService.ConflictRetryListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.dao.TransientDataAccessException;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
-import  org.springframework.transaction.annotation.Transactional;
+import org.springframework.data.domain.Sort;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transactionRepo;
     private final BankAccountService bankService;
+    private final ObjectProvider<TransactionTemplate> transactionTemplate;
+    private final TransferSequencer transferSequencer;
+    private final AccountNameResolver accountNameResolver;
+    private final ObjectMapper objectMapper;
+    private final ReceiptCache receiptCache;
+    private final RetryTemplate conflictRetryTemplate;
     private static final String SYSTEM_ACCOUNT_ID = "SYSTEM";
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+    private static final int EXPORT_BATCH_SIZE = 500;
     private static final Logger logger = LoggerFactory.getLogger(TransactionServiceImpl.class);
 
 
 
     @Override
-    @Retryable(
-            value = {TransientDataAccessException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
     public TransactionResponse deposit(DepositRequest request) {
-        bankService.credit(request.receiverAccountNumber(), request.amount());
+        return inTransaction("deposit", List.of(request.receiverAccountNumber()), () -> executeDeposit(request));
+    }
 
-        BankAccount systemAccount = bankService.getSystemAccount();
-        BankAccount receiverAccount = bankService.getAccountByAccountNumber(request.receiverAccountNumber());
+    private TransactionResponse executeDeposit(DepositRequest request) {
+        AccountContext accounts = new AccountContext(bankService, transferSequencer);
+        BankAccount receiverAccount = accounts.credit(request.receiverAccountNumber(), request.amount());
 
         Transaction transaction = new Transaction();
-        transaction.setSenderAccountId(systemAccount.getId());
-        transaction.setSenderAccountNumber(systemAccount.getAccountNumber());
+        transaction.setSenderAccountId(bankService.getSystemAccountId());
+        transaction.setSenderAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID);
         transaction.setReceiverAccountId(receiverAccount.getId());
         transaction.setReceiverAccountNumber(receiverAccount.getAccountNumber());
+        transaction.setReceiverName(receiverAccount.getName());
         transaction.setAmount(request.amount());
         transaction.setType(TransactionType.CREDIT);
         transaction.setStatus(TransactionStatus.SUCCESS);
@@ -67,83 +97,349 @@ public class TransactionServiceImpl implements TransactionService {
 
         transactionRepo.save(transaction);
 
-        return mapToTransactionResponse(transaction);
+        TransactionResponse response = mapToTransactionResponse(transaction, receiverAccount.getName());
+        receiptCache.put(response);
+        return response;
     }
 
 
     @Override
-    @Transactional
-    @Retryable(
-            value = {TransientDataAccessException.class,
-            ObjectOptimisticLockingFailureException.class},
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 1000, multiplier = 2)
-    )
     public TransactionResponse transfer(SendMoneyRequest request) {
         validateTransferRequest(request);
+        return inTransaction("transfer", List.of(request.senderAccountNumber(), request.receiverAccountNumber()),
+                () -> executeTransfer(request));
+    }
 
-        BankAccount senderAccount = bankService.getAccountByAccountNumber(request.senderAccountNumber());
-        BankAccount receiverAccount = bankService.getAccountByAccountNumber(request.receiverAccountNumber());
+    private TransactionResponse executeTransfer(SendMoneyRequest request) {
+        AccountContext accounts = new AccountContext(bankService, transferSequencer);
+        // Resolve the receiver before any money moves; the debit and credit return the accounts they update.
+        accounts.get(request.receiverAccountNumber());
+        BankAccount senderAccount = accounts.debit(request.senderAccountNumber(), request.amount());
+        BankAccount receiverAccount = accounts.credit(request.receiverAccountNumber(), request.amount());
 
-        bankService.debit(senderAccount.getAccountNumber(), request.amount());
-        bankService.credit(receiverAccount.getAccountNumber(), request.amount());
+        List<Transaction> entries = createTransferEntries(senderAccount, receiverAccount, request, LocalDateTime.now());
+        transactionRepo.saveAll(entries);
 
-        LocalDateTime now = LocalDateTime.now();
-        String note = Optional.ofNullable(request.note()).orElse("");
+        TransactionResponse response = mapToTransactionResponse(entries.get(0), receiverAccount.getName());
+        receiptCache.put(response);
+        receiptCache.put(mapToTransactionResponse(entries.get(1), entries.get(1).getReceiverName()));
+        return response;
+    }
 
-        Transaction senderTx = createTransaction(
-                senderAccount,
-                receiverAccount,
-                request.amount(),
-                TransactionType.DEBIT,
-                "Transfer to " + receiverAccount.getName() + ": " + note,
-                now,
-                generateTransactionReference()
-        );
 
-        Transaction receiverTx = createTransaction(
-                receiverAccount,
-                senderAccount,
-                request.amount(),
-                TransactionType.CREDIT,
-                "Received from " + senderAccount.getName() + ": " + note,
-                now,
-                generateTransactionReference()
-        );
+    @Override
+    public List<BatchTransferResult> transferBatch(List<SendMoneyRequest> requests) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (SendMoneyRequest request : requests) {
+            if (request == null) {
+                throw new IllegalArgumentException("Batch transfers cannot contain empty items");
+            }
+            accountNumbers.add(request.senderAccountNumber());
+            accountNumbers.add(request.receiverAccountNumber());
+        }
+        accountNumbers.remove(null);
+        return inTransaction("transferBatch", List.copyOf(accountNumbers), () -> executeBatch(requests));
+    }
 
+    private List<BatchTransferResult> executeBatch(List<SendMoneyRequest> requests) {
+        BatchTransferResult[] results = new BatchTransferResult[requests.size()];
 
-        transactionRepo.save(senderTx);
-        transactionRepo.save(receiverTx);
+        Set<String> accountNumbers = new HashSet<>();
+        for (SendMoneyRequest request : requests) {
+            accountNumbers.add(request.senderAccountNumber());
+            accountNumbers.add(request.receiverAccountNumber());
+        }
+        accountNumbers.remove(null);
+        Map<String, BankAccount> accounts = new HashMap<>();
+        bankService.getAccountsByAccountNumbers(accountNumbers)
+                .forEach(account -> accounts.put(account.getAccountNumber(), account));
+
+        // Replay the batch in order against the balances just read, so an account can spend money it
+        // received earlier in the same batch, then keep one net change per account.
+        Map<String, BigDecimal> available = new HashMap<>();
+        accounts.forEach((number, account) -> available.put(number, account.getBalance()));
+        Map<String, BigDecimal> netChanges = new LinkedHashMap<>();
+        List<Integer> accepted = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            SendMoneyRequest request = requests.get(index);
+            String rejection = rejectBatchItem(request, accounts, available);
+            if (rejection != null) {
+                results[index] = new BatchTransferResult(index, TransactionStatus.FAILED, null, rejection);
+                continue;
+            }
+            available.merge(request.senderAccountNumber(), request.amount().negate(), BigDecimal::add);
+            available.merge(request.receiverAccountNumber(), request.amount(), BigDecimal::add);
+            netChanges.merge(request.senderAccountNumber(), request.amount().negate(), BigDecimal::add);
+            netChanges.merge(request.receiverAccountNumber(), request.amount(), BigDecimal::add);
+            accepted.add(index);
+        }
+        if (accepted.isEmpty()) {
+            return List.of(results);
+        }
+
+        Map<String, BigDecimal> applied = applyNetDebits(netChanges);
+        if (applied == null) {
+            logger.warn("Batch of {} transfers lost a balance race, applying accepted items one by one", requests.size());
+            for (int index : accepted) {
+                results[index] = transferBatchItem(index, requests.get(index));
+            }
+            return List.of(results);
+        }
 
-        return mapToTransactionResponse(senderTx);
+        // Every net debit is in place. If the credits or the ledger now fail, the batch is undone before the
+        // error propagates, so no money leaves an account without arriving and being recorded.
+        Map<String, BigDecimal> credits = new LinkedHashMap<>();
+        netChanges.forEach((accountNumber, change) -> {
+            if (change.signum() > 0) credits.put(accountNumber, change);
+        });
+        try {
+            bankService.creditAll(credits);
+        } catch (PartialCreditException e) {
+            e.getCreditedAccountNumbers().forEach(accountNumber -> applied.put(accountNumber, credits.get(accountNumber)));
+            undoAfterFailure(applied, e);
+            throw e;
+        } catch (RuntimeException e) {
+            logger.error("Bulk credit for a batch failed without reporting progress; credits {} may be partly applied",
+                    credits, e);
+            undoAfterFailure(applied, e);
+            throw e;
+        }
+        applied.putAll(credits);
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<Transaction> ledger = new ArrayList<>(accepted.size() * 2);
+            for (int index : accepted) {
+                SendMoneyRequest request = requests.get(index);
+                List<Transaction> entries = createTransferEntries(
+                        accounts.get(request.senderAccountNumber()),
+                        accounts.get(request.receiverAccountNumber()),
+                        request,
+                        now);
+                ledger.addAll(entries);
+                results[index] = new BatchTransferResult(
+                        index, TransactionStatus.SUCCESS, entries.get(0).getTransactionReference(), null);
+            }
+            transactionRepo.saveAll(ledger);
+        } catch (RuntimeException e) {
+            undoAfterFailure(applied, e);
+            throw e;
+        }
+
+        return List.of(results);
+    }
+
+    private String rejectBatchItem(SendMoneyRequest request, Map<String, BankAccount> accounts, Map<String, BigDecimal> available) {
+        if (request.amount() == null || request.amount().compareTo(BigDecimal.ZERO) <= 0) {
+            return "Amount must be greater than zero";
+        }
+        if (request.amount().stripTrailingZeros().scale() > MoneyRepresentation.MINOR_UNIT_SCALE) {
+            return "Amount cannot have more than " + MoneyRepresentation.MINOR_UNIT_SCALE + " decimal places";
+        }
+        if (request.senderAccountNumber() == null || !accounts.containsKey(request.senderAccountNumber())
+                || request.receiverAccountNumber() == null || !accounts.containsKey(request.receiverAccountNumber())) {
+            return "Account not found";
+        }
+        if (request.senderAccountNumber().equals(request.receiverAccountNumber())) {
+            return "Cannot transfer to self";
+        }
+        if (available.get(request.senderAccountNumber()).compareTo(request.amount()) < 0) {
+            return "Insufficient Balance";
+        }
+        return null;
     }
 
+    // Net debits go through the guarded atomic path. Returns the applied changes, or null when one of them
+    // lost a race with a concurrent spend, in which case the debits already applied have been reversed.
+    private Map<String, BigDecimal> applyNetDebits(Map<String, BigDecimal> netChanges) {
+        Map<String, BigDecimal> applied = new LinkedHashMap<>();
+        for (Map.Entry<String, BigDecimal> change : netChanges.entrySet()) {
+            if (change.getValue().signum() >= 0) continue;
+            try {
+                bankService.debit(change.getKey(), change.getValue().negate());
+                applied.put(change.getKey(), change.getValue());
+            } catch (InsufficientBalanceException | UserNotFoundException e) {
+                // Falling back to item-by-item transfers is only safe once every debit is back.
+                if (!reverse(applied, e)) throw e;
+                return null;
+            }
+        }
+        return applied;
+    }
+
+    // Inside a transaction the rollback undoes every write, so there is nothing to reverse by hand.
+    private void undoAfterFailure(Map<String, BigDecimal> applied, RuntimeException cause) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) return;
+        reverse(applied, cause);
+    }
+
+    // Applies the opposite of each change. Every change is attempted; the ones that fail are logged for
+    // reconciliation and attached to the cause, so they reach the caller with the original error.
+    private boolean reverse(Map<String, BigDecimal> applied, RuntimeException cause) {
+        boolean reversedAll = true;
+        for (Map.Entry<String, BigDecimal> change : applied.entrySet()) {
+            try {
+                if (change.getValue().signum() < 0) {
+                    bankService.credit(change.getKey(), change.getValue().negate());
+                } else {
+                    bankService.debit(change.getKey(), change.getValue());
+                }
+            } catch (RuntimeException reversalFailure) {
+                reversedAll = false;
+                logger.error("Could not reverse balance change of {} on account {}; it needs manual reconciliation",
+                        change.getValue(), change.getKey(), reversalFailure);
+                cause.addSuppressed(reversalFailure);
+            }
+        }
+        return reversedAll;
+    }
+
+    private BatchTransferResult transferBatchItem(int index, SendMoneyRequest request) {
+        try {
+            TransactionResponse response = executeTransfer(request);
+            return new BatchTransferResult(index, TransactionStatus.SUCCESS, response.transactionReference(), null);
+        } catch (InsufficientBalanceException | UserNotFoundException e) {
+            return new BatchTransferResult(index, TransactionStatus.FAILED, null, e.getMessage());
+        } catch (RuntimeException e) {
+            // Inside a transaction the whole batch rolls back and is retried, so the error has to reach it.
+            // Without one the items before this have already landed and their results must still be returned.
+            if (TransactionSynchronizationManager.isActualTransactionActive()) throw e;
+            logger.error("Batch item {} failed unexpectedly", index, e);
+            return new BatchTransferResult(index, TransactionStatus.FAILED, null, "Transfer could not be completed");
+        }
+    }
 
     @Override
     public List<TransactionResponse> getTransactionsForAccount(String accountId, LocalDateTime start, LocalDateTime end, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "timestamp", "_id"));
         List<Transaction> transactions = transactionRepo.findTransactionsWithinDateBySenderOrReceiverWithType(
                 accountId, TransactionType.DEBIT, accountId, TransactionType.CREDIT, start, end, pageable);
-        return transactions.stream()
-                .map(t -> new TransactionResponse(t.getTransactionReference(), t.getAmount(), t.getType(),
-                        t.getStatus(), t.getNote(), t.getTimestamp(),
-                        bankService.getAccountByAccountNumber(t.getReceiverAccountNumber()).getName() ) )
-                .sorted(Comparator.comparing(TransactionResponse::timeStamp).reversed())
-                .toList();
+        return mapToTransactionResponses(transactions);
+    }
+
+    // Every ledger entry for an account comes with a balance change on it, which bumps the account version.
+    @Override
+    public long getHistoryVersion(String accountId) {
+        return bankService.getAccountVersionById(accountId);
+    }
+
+    @Override
+    public TransactionHistoryPage getTransactionHistory(String accountId, LocalDateTime start, LocalDateTime end, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_HISTORY_PAGE_SIZE));
+        HistoryCursor after = cursor == null || cursor.isBlank() ? null : HistoryCursor.decode(cursor);
+
+        // One extra row tells us whether there is a next page without a count query.
+        List<Transaction> transactions = transactionRepo.findHistoryPage(accountId, start, end,
+                after == null ? null : after.timestamp(),
+                after == null ? null : after.transactionId(),
+                pageSize + 1);
+
+        boolean hasMore = transactions.size() > pageSize;
+        List<Transaction> page = hasMore ? transactions.subList(0, pageSize) : transactions;
+        String nextCursor = hasMore ? HistoryCursor.after(page.get(page.size() - 1)).encode() : null;
+
+        return new TransactionHistoryPage(mapToTransactionResponses(page), nextCursor);
+    }
+
+
+    // Rows go from the Mongo cursor through a buffered writer to the response one at a time, so memory use
+    // doesn't depend on how long the statement is.
+    @Override
+    public void exportTransactions(String accountId, LocalDateTime start, LocalDateTime end,
+                                   StatementFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == StatementFormat.CSV) {
+            writer.write("transactionReference,timestamp,type,status,amount,receiverName,note\n");
+        }
+        try (Stream<Transaction> transactions = transactionRepo.streamHistory(accountId, start, end)) {
+            Iterator<Transaction> rows = transactions.iterator();
+            List<Transaction> batch = new ArrayList<>(EXPORT_BATCH_SIZE);
+            while (rows.hasNext()) {
+                batch.add(rows.next());
+                if (batch.size() == EXPORT_BATCH_SIZE || !rows.hasNext()) {
+                    writeRows(writer, format, batch);
+                    batch.clear();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    // Names missing from older rows are resolved once per batch rather than once per row.
+    private void writeRows(Writer writer, StatementFormat format, List<Transaction> batch) throws IOException {
+        for (TransactionResponse row : mapToTransactionResponses(batch)) {
+            if (format == StatementFormat.CSV) {
+                writeCsvRow(writer, row);
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+                writer.write('\n');
+            }
+        }
+    }
+
+    private void writeCsvRow(Writer writer, TransactionResponse row) throws IOException {
+        writer.write(String.join(",",
+                csvField(row.transactionReference()),
+                csvField(row.timeStamp()),
+                csvField(row.type()),
+                csvField(row.status()),
+                csvField(row.amount() == null ? null : row.amount().toPlainString()),
+                csvField(row.receiverName()),
+                csvField(row.note())));
+        writer.write('\n');
+    }
+
+    private String csvField(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        // Spreadsheets evaluate a cell starting with one of these as a formula; the leading quote keeps it text.
+        if (!text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
     }
 
 
     @Override
     public TransactionResponse getTransactionById(String reference) {
+        Optional<TransactionResponse> cached = receiptCache.get(reference);
+        if (cached.isPresent()) return cached.get();
+
         Transaction transaction = transactionRepo.findByTransactionReference(reference)
                 .orElseThrow(() -> new TransactionNotFoundException("Transaction not found"));
 
-        return mapToTransactionResponse(transaction);
+        TransactionResponse response = mapToTransactionResponse(transaction);
+        receiptCache.put(response);
+        return response;
     }
 
 
     private TransactionResponse mapToTransactionResponse(Transaction transaction) {
-        String receiverName = bankService.getAccountByAccountNumber(transaction.getReceiverAccountNumber()).getName();
+        String receiverName = transaction.getReceiverName() != null
+                ? transaction.getReceiverName()
+                : accountNameResolver.resolve(Set.of(transaction.getReceiverAccountNumber()))
+                        .get(transaction.getReceiverAccountNumber());
+        return mapToTransactionResponse(transaction, receiverName);
+    }
+
+    // Rows written before receiverName was stored are resolved together, with one lookup for the whole page.
+    private List<TransactionResponse> mapToTransactionResponses(List<Transaction> transactions) {
+        Set<String> missing = new HashSet<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getReceiverName() == null) missing.add(transaction.getReceiverAccountNumber());
+        }
+        Map<String, String> names = accountNameResolver.resolve(missing);
+        return transactions.stream()
+                .map(t -> mapToTransactionResponse(t, t.getReceiverName() != null
+                        ? t.getReceiverName()
+                        : names.get(t.getReceiverAccountNumber())))
+                .toList();
+    }
+
+    private TransactionResponse mapToTransactionResponse(Transaction transaction, String receiverName) {
         return new TransactionResponse(
                 transaction.getTransactionReference(),
                 transaction.getAmount(),
@@ -155,6 +451,21 @@ public class TransactionServiceImpl implements TransactionService {
         );
     }
 
+    // Runs the work in one Mongo transaction when app.transfer.transactional provides a transaction manager.
+    // Only a whole transaction is replayed on a write conflict, because its aborted writes left nothing behind.
+    // Without one, each balance leg retries its own single write, and the operation as a whole never runs twice:
+    // replaying it after a failed credit or ledger write would repeat a debit that already happened.
+    private <T> T inTransaction(String operation, List<String> accounts, Supplier<T> work) {
+        TransactionTemplate template = transactionTemplate.getIfAvailable();
+        if (template == null) {
+            return work.get();
+        }
+        return conflictRetryTemplate.execute(context -> {
+            ConflictRetryListener.describe(context, operation, accounts);
+            return template.execute(status -> work.get());
+        });
+    }
+
     private void validateTransferRequest(SendMoneyRequest request) {
         if (request.senderAccountNumber().equals(request.receiverAccountNumber())) {
             throw new IllegalArgumentException("Cannot transfer to self");
@@ -164,6 +475,38 @@ public class TransactionServiceImpl implements TransactionService {
         }
     }
 
+    // Debit entry for the sender first, then the matching credit entry for the receiver.
+    private List<Transaction> createTransferEntries(
+            BankAccount senderAccount,
+            BankAccount receiverAccount,
+            SendMoneyRequest request,
+            LocalDateTime timestamp
+    ) {
+        String note = Optional.ofNullable(request.note()).orElse("");
+
+        Transaction senderTx = createTransaction(
+                senderAccount,
+                receiverAccount,
+                request.amount(),
+                TransactionType.DEBIT,
+                "Transfer to " + receiverAccount.getName() + ": " + note,
+                timestamp,
+                generateTransactionReference()
+        );
+
+        Transaction receiverTx = createTransaction(
+                receiverAccount,
+                senderAccount,
+                request.amount(),
+                TransactionType.CREDIT,
+                "Received from " + senderAccount.getName() + ": " + note,
+                timestamp,
+                generateTransactionReference()
+        );
+
+        return List.of(senderTx, receiverTx);
+    }
+
     private Transaction createTransaction(
             BankAccount source,
             BankAccount target,
@@ -180,11 +523,13 @@ public class TransactionServiceImpl implements TransactionService {
             transaction.setSenderAccountNumber(source.getAccountNumber());
             transaction.setReceiverAccountId(target.getId());
             transaction.setReceiverAccountNumber(target.getAccountNumber());
+            transaction.setReceiverName(target.getName());
         } else {
             transaction.setSenderAccountId(target.getId());
             transaction.setSenderAccountNumber(target.getAccountNumber());
             transaction.setReceiverAccountId(source.getId());
             transaction.setReceiverAccountNumber(source.getAccountNumber());
+            transaction.setReceiverName(source.getName());
         }
 
         transaction.setAmount(amount);
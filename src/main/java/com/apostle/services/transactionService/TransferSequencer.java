@@ -0,0 +1,244 @@
+package com.apostle.services.transactionService;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.exceptions.PartialCreditException;
+import com.apostle.exceptions.UserNotFoundException;
+import com.apostle.services.bankService.BankAccountService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional single-writer path for balance changes. Each account number hashes to one of N lanes, and a
+ * lane is the only thread writing that account's balance. A lane drains up to max-group-size queued
+ * changes at a time: credit-only accounts in the group get one summed $inc in a shared bulk write, and
+ * accounts with debits keep their changes in arrival order through the guarded atomic path.
+ * Lanes write outside any caller transaction, so the sequencer stays out of the way when one is active.
+ */
+@Slf4j
+@Component
+public class TransferSequencer {
+
+    private static final String SHUTTING_DOWN = "Transfer sequencer is shutting down";
+
+    private final BankAccountService bankService;
+
+    @Value("${app.transfer.sequencer.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.transfer.sequencer.lanes:8}")
+    private int laneCount;
+
+    @Value("${app.transfer.sequencer.max-group-size:64}")
+    private int maxGroupSize;
+
+    private Lane[] lanes;
+    // Set before the lanes are interrupted; a change submitted after it is refused instead of waiting forever.
+    private volatile boolean stopped;
+
+    public TransferSequencer(BankAccountService bankService) {
+        this.bankService = bankService;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("app.transfer.sequencer.lanes must be at least 1, was " + laneCount);
+        }
+        if (maxGroupSize < 1) {
+            throw new IllegalArgumentException(
+                    "app.transfer.sequencer.max-group-size must be at least 1, was " + maxGroupSize);
+        }
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane("transfer-sequencer-" + i);
+            lanes[i].start();
+        }
+        log.info("Transfer sequencer started with {} lanes", laneCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        if (lanes == null) return;
+        for (Lane lane : lanes) {
+            lane.interrupt();
+        }
+    }
+
+    public boolean isActive() {
+        return enabled && !stopped && !TransactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    public BankAccount credit(String accountNumber, BigDecimal amount) {
+        return submit(new BalanceChange(accountNumber, amount, false));
+    }
+
+    public BankAccount debit(String accountNumber, BigDecimal amount) {
+        return submit(new BalanceChange(accountNumber, amount, true));
+    }
+
+    private BankAccount submit(BalanceChange change) {
+        if (stopped) throw new IllegalStateException(SHUTTING_DOWN);
+        BlockingQueue<BalanceChange> queue = lanes[Math.floorMod(change.accountNumber.hashCode(), lanes.length)].queue;
+        queue.add(change);
+        // The lane may have drained its queue and exited between the check above and the add.
+        if (stopped && queue.remove(change)) {
+            change.result.completeExceptionally(new IllegalStateException(SHUTTING_DOWN));
+        }
+        try {
+            return change.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void commit(List<BalanceChange> group) {
+        Map<String, List<BalanceChange>> byAccount = group.stream()
+                .collect(Collectors.groupingBy(change -> change.accountNumber, LinkedHashMap::new, Collectors.toList()));
+
+        Map<String, BigDecimal> creditTotals = new LinkedHashMap<>();
+        for (Map.Entry<String, List<BalanceChange>> entry : byAccount.entrySet()) {
+            List<BalanceChange> changes = entry.getValue();
+            if (changes.size() > 1 && changes.stream().noneMatch(change -> change.debit)
+                    && changes.stream().allMatch(change -> change.amount != null && change.amount.signum() > 0)) {
+                creditTotals.put(entry.getKey(), changes.stream().map(change -> change.amount).reduce(BigDecimal.ZERO, BigDecimal::add));
+            } else {
+                changes.forEach(this::applyOne);
+            }
+        }
+        if (!creditTotals.isEmpty()) {
+            commitCredits(creditTotals, byAccount);
+        }
+    }
+
+    // Accounts the bulk write credited complete with their updated account even when a later one failed, so no
+    // caller is told a credit failed when the money landed. Only the accounts it never reached are failed.
+    private void commitCredits(Map<String, BigDecimal> creditTotals, Map<String, List<BalanceChange>> byAccount) {
+        Set<String> credited;
+        try {
+            bankService.creditAll(creditTotals);
+            credited = creditTotals.keySet();
+        } catch (PartialCreditException e) {
+            credited = Set.copyOf(e.getCreditedAccountNumbers());
+            failUncredited(creditTotals.keySet(), credited, byAccount, e);
+        } catch (RuntimeException e) {
+            failUncredited(creditTotals.keySet(), Set.of(), byAccount, e);
+            return;
+        }
+        if (credited.isEmpty()) return;
+
+        Map<String, BankAccount> updated = readBack(credited);
+        for (String accountNumber : credited) {
+            BankAccount account = updated.get(accountNumber);
+            for (BalanceChange change : byAccount.get(accountNumber)) {
+                if (account == null) {
+                    change.result.completeExceptionally(new UserNotFoundException("Account not found"));
+                } else {
+                    change.result.complete(account);
+                }
+            }
+        }
+    }
+
+    private void failUncredited(Set<String> accountNumbers, Set<String> credited,
+                                Map<String, List<BalanceChange>> byAccount, RuntimeException cause) {
+        accountNumbers.stream()
+                .filter(accountNumber -> !credited.contains(accountNumber))
+                .forEach(accountNumber -> byAccount.get(accountNumber)
+                        .forEach(change -> change.result.completeExceptionally(cause)));
+    }
+
+    // One bulk read, falling back to one read per account if it fails.
+    private Map<String, BankAccount> readBack(Set<String> accountNumbers) {
+        try {
+            return bankService.getAccountsByAccountNumbers(accountNumbers).stream()
+                    .collect(Collectors.toMap(BankAccount::getAccountNumber, Function.identity()));
+        } catch (RuntimeException e) {
+            log.warn("Bulk read-back after a sequencer credit failed, reading accounts one by one: {}", e.getMessage());
+        }
+        Map<String, BankAccount> updated = new HashMap<>();
+        for (String accountNumber : accountNumbers) {
+            try {
+                updated.put(accountNumber, bankService.getAccountByAccountNumber(accountNumber));
+            } catch (RuntimeException e) {
+                log.error("Account {} was credited but could not be read back", accountNumber, e);
+            }
+        }
+        return updated;
+    }
+
+    private void applyOne(BalanceChange change) {
+        try {
+            BankAccount account = change.debit
+                    ? bankService.debit(change.accountNumber, change.amount)
+                    : bankService.credit(change.accountNumber, change.amount);
+            change.result.complete(account);
+        } catch (RuntimeException e) {
+            change.result.completeExceptionally(e);
+        }
+    }
+
+    private static final class BalanceChange {
+        private final String accountNumber;
+        private final BigDecimal amount;
+        private final boolean debit;
+        private final CompletableFuture<BankAccount> result = new CompletableFuture<>();
+
+        private BalanceChange(String accountNumber, BigDecimal amount, boolean debit) {
+            this.accountNumber = accountNumber;
+            this.amount = amount;
+            this.debit = debit;
+        }
+    }
+
+    private final class Lane extends Thread {
+        private final BlockingQueue<BalanceChange> queue = new LinkedBlockingQueue<>();
+
+        private Lane(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<BalanceChange> group = new ArrayList<>(maxGroupSize);
+            while (!isInterrupted()) {
+                try {
+                    group.add(queue.take());
+                } catch (InterruptedException e) {
+                    break;
+                }
+                queue.drainTo(group, maxGroupSize - 1);
+                try {
+                    commit(group);
+                } catch (RuntimeException e) {
+                    log.error("Sequencer lane {} failed to commit a group of {}", getName(), group.size(), e);
+                    group.forEach(change -> change.result.completeExceptionally(e));
+                }
+                group.clear();
+            }
+            queue.forEach(change -> change.result.completeExceptionally(
+                    new IllegalStateException(SHUTTING_DOWN)));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.apostle.utils;
+
+/**
+ * Account number format: '0', an 8-digit serial and a Luhn check digit. Numbers issued before the allocator
+ * are 10 random digits starting with 1-9 and carry no check digit, so they are only checked for shape.
+ */
+public class AccountNumbers {
+
+    public static final int LENGTH = 10;
+    public static final long MAX_SERIAL = 99_999_999L;
+    private static final String SYSTEM_ACCOUNT = "SYSTEM";
+
+    public static String format(long serial) {
+        if (serial < 0 || serial > MAX_SERIAL) {
+            throw new IllegalArgumentException("Account serial out of range: " + serial);
+        }
+        String payload = String.format("0%08d", serial);
+        return payload + checkDigit(payload);
+    }
+
+    public static boolean isWellFormed(String accountNumber) {
+        if (SYSTEM_ACCOUNT.equals(accountNumber)) return true;
+        if (accountNumber == null || accountNumber.length() != LENGTH) return false;
+        for (int i = 0; i < LENGTH; i++) {
+            if (!Character.isDigit(accountNumber.charAt(i))) return false;
+        }
+        if (accountNumber.charAt(0) != '0') return true;
+        return checkDigit(accountNumber.substring(0, LENGTH - 1)) == accountNumber.charAt(LENGTH - 1) - '0';
+    }
+
+    // Luhn: double every second digit from the right of the payload, then pad the sum to a multiple of ten.
+    static int checkDigit(String payload) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = payload.length() - 1; i >= 0; i--) {
+            int digit = payload.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,20 @@
+package com.apostle.utils;
+
+public class ETags {
+
+    public static String fromVersion(long version) {
+        return "\"v" + version + "\"";
+    }
+
+    // If-None-Match may list several tags, use weak ones, or be "*"; weak comparison is enough for a GET.
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,80 @@
+package com.apostle.benchmarks;
+
+import com.apostle.data.model.Role;
+import com.apostle.services.jwtService.JwtService;
+import com.apostle.services.jwtService.VerifiedAccessToken;
+import com.apostle.services.redisService.TokenBlacklistService;
+import com.apostle.services.redisService.TokenEpochService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token verification as done by JwtAuthenticationFilter on every request: rebuilding the key and parser
+ * per call (the previous JwtService) against the key and parser JwtService now builds once. The blacklist is
+ * stubbed out so only signature checking and claim parsing are measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TokenBlacklistService noBlacklist = new TokenBlacklistService(null, null, new SimpleMeterRegistry(),
+                false, 0, 0, 0, 1, TimeUnit.HOURS.toMillis(1)) {
+            @Override
+            public boolean isTokenBlacklisted(String token) {
+                return false;
+            }
+        };
+        TokenEpochService noRevocations = new TokenEpochService(null, new RedisMessageListenerContainer(),
+                new SimpleMeterRegistry(), 1, 1) {
+            @Override
+            public long currentEpoch(String userId) {
+                return 0;
+            }
+        };
+        jwtService = new JwtService(noBlacklist, noRevocations, SECRET, TimeUnit.HOURS.toMillis(1));
+        token = jwtService.generateJwtToken("benchmark@example.com", "benchmark-user", Role.CUSTOMER);
+    }
+
+    @Benchmark
+    public Claims rebuildKeyAndParserPerCall() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public VerifiedAccessToken cachedKeyAndParser() {
+        return jwtService.verify(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .threads(Runtime.getRuntime().availableProcessors())
+                .build();
+        new Runner(options).run();
+    }
+}
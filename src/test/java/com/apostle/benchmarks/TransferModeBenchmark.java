@@ -0,0 +1,100 @@
+package com.apostle.benchmarks;
+
+import com.apostle.Main;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.repositories.BankAccountRepository;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.services.bankService.AccountNumberAllocator;
+import com.apostle.services.transactionService.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer throughput with and without a Mongo transaction around the two balance legs and the ledger insert.
+ * Needs the usual application environment, with MONGODB_URI pointing at a replica set.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferModeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"false", "true"})
+        public String transactional;
+
+        ConfigurableApplicationContext context;
+        TransactionService transactionService;
+        BankAccountRepository bankAccountRepository;
+        AccountNumberAllocator accountNumberAllocator;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SpringApplication.run(Main.class,
+                    "--app.transfer.transactional=" + transactional,
+                    "--logging.level.root=WARN");
+            transactionService = context.getBean(TransactionService.class);
+            bankAccountRepository = context.getBean(BankAccountRepository.class);
+            accountNumberAllocator = context.getBean(AccountNumberAllocator.class);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    // Each benchmark thread moves money between its own pair of accounts, so this measures cost per transfer, not contention.
+    @State(Scope.Thread)
+    public static class AccountPair {
+
+        String first;
+        String second;
+        boolean forward;
+
+        @Setup(Level.Trial)
+        public void createAccounts(Application application) {
+            first = createAccount(application.bankAccountRepository, application.accountNumberAllocator);
+            second = createAccount(application.bankAccountRepository, application.accountNumberAllocator);
+        }
+
+        private String createAccount(BankAccountRepository repository, AccountNumberAllocator allocator) {
+            BankAccount account = BankAccount.builder()
+                    .accountNumber(allocator.next())
+                    .name("benchmark")
+                    .balance(new BigDecimal("1000000.00"))
+                    .accountType(AccountType.SAVINGS)
+                    .build();
+            return repository.save(account).getAccountNumber();
+        }
+    }
+
+    @Benchmark
+    public Object transfer(Application application, AccountPair pair) {
+        pair.forward = !pair.forward;
+        String sender = pair.forward ? pair.first : pair.second;
+        String receiver = pair.forward ? pair.second : pair.first;
+        return application.transactionService.transfer(
+                new SendMoneyRequest(sender, receiver, BigDecimal.ONE, "benchmark"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TransferModeBenchmark.class.getSimpleName())
+                .threads(4)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package com.apostle.benchmarks;
+
+import com.apostle.Main;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.repositories.BankAccountRepository;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.services.bankService.AccountNumberAllocator;
+import com.apostle.services.transactionService.TransactionService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfers from many senders into one hot merchant account, with the sequencer off (every leg is its own
+ * atomic update racing on the merchant document) and on (merchant credits are group-committed by one lane).
+ * main() repeats the run at increasing thread counts. Needs the usual application environment and MONGODB_URI.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferSequencerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Application {
+
+        @Param({"false", "true"})
+        public String sequencer;
+
+        ConfigurableApplicationContext context;
+        TransactionService transactionService;
+        BankAccountRepository bankAccountRepository;
+        AccountNumberAllocator accountNumberAllocator;
+        String merchant;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = SpringApplication.run(Main.class,
+                    "--app.transfer.sequencer.enabled=" + sequencer,
+                    "--logging.level.root=WARN");
+            transactionService = context.getBean(TransactionService.class);
+            bankAccountRepository = context.getBean(BankAccountRepository.class);
+            accountNumberAllocator = context.getBean(AccountNumberAllocator.class);
+            merchant = createAccount(bankAccountRepository, accountNumberAllocator, BigDecimal.ZERO);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Customer {
+
+        String accountNumber;
+
+        @Setup(Level.Trial)
+        public void createAccount(Application application) {
+            accountNumber = TransferSequencerBenchmark.createAccount(
+                    application.bankAccountRepository, application.accountNumberAllocator, new BigDecimal("100000000.00"));
+        }
+    }
+
+    @Benchmark
+    public Object payMerchant(Application application, Customer customer) {
+        return application.transactionService.transfer(
+                new SendMoneyRequest(customer.accountNumber, application.merchant, BigDecimal.ONE, "benchmark"));
+    }
+
+    static String createAccount(BankAccountRepository repository, AccountNumberAllocator allocator, BigDecimal balance) {
+        BankAccount account = BankAccount.builder()
+                .accountNumber(allocator.next())
+                .name("benchmark")
+                .balance(balance)
+                .accountType(AccountType.CURRENT)
+                .build();
+        return repository.save(account).getAccountNumber();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 4, 16, 64}) {
+            Options options = new OptionsBuilder()
+                    .include(TransferSequencerBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
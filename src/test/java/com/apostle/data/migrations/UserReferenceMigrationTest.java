@@ -0,0 +1,62 @@
+package com.apostle.data.migrations;
+
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.PasswordResetToken;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class UserReferenceMigrationTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final IndexOperations indexOps = mock(IndexOperations.class);
+    private final UserReferenceMigration migration = new UserReferenceMigration(mongoTemplate);
+
+    @BeforeEach
+    public void setUp() {
+        when(mongoTemplate.getCollectionName(BankAccount.class)).thenReturn("bank_accounts");
+        when(mongoTemplate.getCollectionName(PasswordResetToken.class)).thenReturn("password_reset_tokens");
+        when(mongoTemplate.updateMulti(any(Query.class), any(UpdateDefinition.class), anyString()))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenReturn(List.of());
+    }
+
+    @Test
+    public void testRun_backfillsUserIdsByDefaultWithoutRemovingAnything() {
+        migration.run(null);
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<UpdateDefinition> updates = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mongoTemplate, times(2)).updateMulti(queries.capture(), updates.capture(), anyString());
+        assertTrue(updates.getAllValues().stream().allMatch(AggregationUpdate.class::isInstance));
+        assertTrue(queries.getValue().getQueryObject().containsKey("userId"));
+        verify(mongoTemplate, never()).indexOps(anyString());
+    }
+
+    @Test
+    public void testRun_removesTheEmbeddedUserOnlyWhenEnabled() {
+        ReflectionTestUtils.setField(migration, "removeEmbeddedUser", true);
+
+        migration.run(null);
+
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(Update.class), anyString());
+        verify(mongoTemplate).indexOps("bank_accounts");
+        verify(mongoTemplate).indexOps("password_reset_tokens");
+    }
+}
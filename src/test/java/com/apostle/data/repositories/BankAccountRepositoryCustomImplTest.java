@@ -0,0 +1,84 @@
+package com.apostle.data.repositories;
+
+import com.apostle.config.MoneyRepresentation;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.utils.AccountNumbers;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Two writers on one legacy account: the other one converts the string balance first, so this call finds nothing
+// left to convert and still has to apply its change.
+public class BankAccountRepositoryCustomImplTest {
+
+    private static final String ACCOUNT = AccountNumbers.format(1);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private BankAccountRepositoryCustomImpl repository;
+
+    @BeforeEach
+    public void setUp() {
+        repository = new BankAccountRepositoryCustomImpl(mongoTemplate, MoneyRepresentation.DECIMAL128);
+        when(mongoTemplate.getCollectionName(BankAccount.class)).thenReturn("bank_accounts");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), anyString())).thenReturn(List.of());
+    }
+
+    @Test
+    public void testDecrement_retriesAfterAConcurrentWriterConvertedTheBalance() {
+        // The guard can't compare a string with a number, so the first attempt matches nothing.
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BankAccount.class)))
+                .thenReturn(null)
+                .thenReturn(account("90.00"));
+
+        Optional<BankAccount> debited = repository.decrementBalanceIfSufficient(ACCOUNT, new BigDecimal("10.00"));
+
+        assertEquals(new BigDecimal("90.00"), debited.orElseThrow().getBalance());
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BankAccount.class));
+    }
+
+    @Test
+    public void testIncrement_retriesAfterAConcurrentWriterConvertedTheBalance() {
+        // $inc on a string fails outright.
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BankAccount.class)))
+                .thenThrow(new UncategorizedMongoDbException("Cannot apply $inc to a value of non-numeric type", null))
+                .thenReturn(account("110.00"));
+
+        Optional<BankAccount> credited = repository.incrementBalance(ACCOUNT, new BigDecimal("10.00"));
+
+        assertEquals(new BigDecimal("110.00"), credited.orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testDecrement_genuinelyInsufficientBalanceIsStillEmpty() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(BankAccount.class)))
+                .thenReturn(null);
+
+        assertTrue(repository.decrementBalanceIfSufficient(ACCOUNT, new BigDecimal("10.00")).isEmpty());
+    }
+
+    private static BankAccount account(String balance) {
+        return BankAccount.builder()
+                .id("id-" + ACCOUNT)
+                .accountNumber(ACCOUNT)
+                .balance(new BigDecimal(balance))
+                .version(2L)
+                .accountType(AccountType.SAVINGS)
+                .build();
+    }
+}
@@ -0,0 +1,271 @@
+package com.apostle.data.repositories;
+
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.PasswordResetToken;
+import com.apostle.data.model.RefreshToken;
+import com.apostle.data.model.Role;
+import com.apostle.data.model.Transaction;
+import com.apostle.data.model.TransactionStatus;
+import com.apostle.data.model.TransactionType;
+import com.apostle.data.model.User;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every repository query method against seeded data, re-issues each command Mongo received as an
+ * explain with executionStats, and fails on a collection scan or on a plan that examines many more
+ * documents than it returns. A query method without a matching index fails here instead of in production.
+ */
+@SpringBootTest
+public class RepositoryQueryPlanTest {
+
+    private static final int SEED_SIZE = 200;
+    private static final int MAX_EXAMINED_PER_RETURNED = 10;
+
+    // Commands worth explaining; inserts, getMore and index commands are not.
+    private static final Set<String> EXPLAINABLE = Set.of("find", "count", "aggregate", "distinct", "findAndModify", "update", "delete");
+    // Session and routing fields the driver adds, which explain rejects.
+    private static final Set<String> DRIVER_FIELDS = Set.of(
+            "lsid", "txnNumber", "autocommit", "startTransaction", "readConcern", "writeConcern");
+
+    private static final List<BsonDocument> captured = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class CommandCapture {
+        @Bean
+        MongoClientSettingsBuilderCustomizer commandCaptureCustomizer() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (EXPLAINABLE.contains(event.getCommandName())) {
+                        captured.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<BankAccount> accounts = new ArrayList<>();
+
+    @BeforeEach
+    public void seed() {
+        transactionRepository.deleteAll();
+        bankAccountRepository.deleteAll();
+        userRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+        passwordResetTokenRepository.deleteAll();
+        users.clear();
+        accounts.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> transactions = new ArrayList<>();
+        List<RefreshToken> refreshTokens = new ArrayList<>();
+        List<PasswordResetToken> resetTokens = new ArrayList<>();
+        for (int i = 0; i < SEED_SIZE; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setRole(Role.CUSTOMER);
+            users.add(userRepository.save(user));
+
+            accounts.add(bankAccountRepository.save(BankAccount.builder()
+                    .accountNumber(String.format("9%09d", i))
+                    .name("user" + i)
+                    .balance(new BigDecimal("1000.00"))
+                    .accountType(AccountType.SAVINGS)
+                    .userId(user.getId())
+                    .build()));
+
+            refreshTokens.add(RefreshToken.builder()
+                    .userId(user.getId()).token("refresh-" + i).role(Role.CUSTOMER)
+                    .expiryDate(Instant.now().plusSeconds(3600)).build());
+
+            PasswordResetToken resetToken = new PasswordResetToken();
+            resetToken.setToken("reset-" + i);
+            resetToken.setExpiration(now.plusHours(1));
+            resetToken.setUserId(user.getId());
+            resetTokens.add(resetToken);
+        }
+        for (int i = 0; i < SEED_SIZE; i++) {
+            BankAccount sender = accounts.get(i);
+            BankAccount receiver = accounts.get((i + 1) % SEED_SIZE);
+            transactions.add(entry(sender, receiver, TransactionType.DEBIT, now.minusMinutes(i), "ref-d-" + i));
+            transactions.add(entry(sender, receiver, TransactionType.CREDIT, now.minusMinutes(i), "ref-c-" + i));
+        }
+        transactionRepository.saveAll(transactions);
+        refreshTokenRepository.saveAll(refreshTokens);
+        passwordResetTokenRepository.saveAll(resetTokens);
+    }
+
+    @Test
+    public void transactionRepository_queriesUseIndexes() {
+        String accountId = accounts.get(7).getId();
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+
+        assertIndexed(() -> transactionRepository.findAllBySenderAccountIdAndTypeOrReceiverAccountIdAndType(
+                accountId, TransactionType.DEBIT, accountId, TransactionType.CREDIT, PageRequest.of(0, 10)));
+        assertIndexed(() -> transactionRepository.findTransactionsWithinDateBySenderOrReceiverWithType(
+                accountId, TransactionType.DEBIT, accountId, TransactionType.CREDIT, start, end, PageRequest.of(0, 10)));
+        assertIndexed(() -> transactionRepository.findByTransactionReference("ref-d-7"));
+
+        List<Transaction> firstPage = transactionRepository.findHistoryPage(accountId, start, end, null, null, 1);
+        assertIndexed(() -> transactionRepository.findHistoryPage(accountId, start, end, null, null, 10));
+        assertIndexed(() -> transactionRepository.findHistoryPage(accountId, start, end,
+                firstPage.get(0).getTimestamp(), firstPage.get(0).getTransactionId(), 10));
+        assertIndexed(() -> {
+            try (Stream<Transaction> rows = transactionRepository.streamHistory(accountId, start, end)) {
+                rows.forEach(row -> { });
+            }
+        });
+    }
+
+    @Test
+    public void bankAccountRepository_queriesUseIndexes() {
+        BankAccount account = accounts.get(11);
+        assertIndexed(() -> bankAccountRepository.existsByAccountNumber(account.getAccountNumber()));
+        assertIndexed(() -> bankAccountRepository.findByAccountNumber(account.getAccountNumber()));
+        assertIndexed(() -> bankAccountRepository.findBalanceByAccountNumber(account.getAccountNumber()));
+        assertIndexed(() -> bankAccountRepository.findAllByUserId(users.get(11).getId()));
+        assertIndexed(() -> bankAccountRepository.findBalancesByUserIdAndAccountNumberIn(users.get(11).getId(),
+                List.of(account.getAccountNumber(), accounts.get(12).getAccountNumber())));
+        assertIndexed(() -> bankAccountRepository.findAllByAccountNumberIn(
+                List.of(account.getAccountNumber(), accounts.get(12).getAccountNumber())));
+        assertIndexed(() -> bankAccountRepository.incrementBalance(account.getAccountNumber(), BigDecimal.ONE));
+        assertIndexed(() -> bankAccountRepository.decrementBalanceIfSufficient(account.getAccountNumber(), BigDecimal.ONE));
+        assertIndexed(() -> bankAccountRepository.incrementBalances(Map.of(
+                account.getAccountNumber(), BigDecimal.ONE, accounts.get(12).getAccountNumber(), BigDecimal.ONE)));
+        assertIndexed(() -> bankAccountRepository.findOrCreate(BankAccount.builder()
+                .accountNumber(account.getAccountNumber()).name("ignored")
+                .balance(BigDecimal.ZERO).accountType(AccountType.SAVINGS).build()));
+    }
+
+    @Test
+    public void userRepository_queriesUseIndexes() {
+        assertIndexed(() -> userRepository.findUserByEmail("user5@example.com"));
+        assertIndexed(() -> userRepository.findIdByEmail("user5@example.com"));
+        assertIndexed(() -> userRepository.findEmailById(users.get(5).getId()));
+        assertIndexed(() -> userRepository.updatePasswordById(users.get(5).getId(), "encoded"));
+    }
+
+    @Test
+    public void refreshTokenRepository_queriesUseIndexes() {
+        String userId = users.get(3).getId();
+        assertIndexed(() -> refreshTokenRepository.findByToken("refresh-3"));
+        assertIndexed(() -> refreshTokenRepository.claimUsable("refresh-3", Instant.now()));
+        assertIndexed(() -> refreshTokenRepository.findByUserId(userId));
+        assertIndexed(() -> refreshTokenRepository.findAllByUserId(userId));
+        assertIndexed(() -> refreshTokenRepository.revokeAllByUserId(userId));
+        assertIndexed(() -> refreshTokenRepository.deleteByUserId(userId));
+    }
+
+    @Test
+    public void passwordResetTokenRepository_queriesUseIndexes() {
+        assertIndexed(() -> passwordResetTokenRepository.findByToken("reset-9"));
+    }
+
+    private Transaction entry(BankAccount sender, BankAccount receiver, TransactionType type,
+                              LocalDateTime timestamp, String reference) {
+        return Transaction.builder()
+                .senderAccountId(sender.getId()).senderAccountNumber(sender.getAccountNumber())
+                .receiverAccountId(receiver.getId()).receiverAccountNumber(receiver.getAccountNumber())
+                .receiverName(receiver.getName())
+                .amount(BigDecimal.TEN).type(type).status(TransactionStatus.SUCCESS)
+                .timestamp(timestamp).transactionReference(reference)
+                .build();
+    }
+
+    private void assertIndexed(Runnable call) {
+        captured.clear();
+        call.run();
+        List<BsonDocument> commands = List.copyOf(captured);
+        assertFalse(commands.isEmpty(), "no query reached Mongo");
+        for (BsonDocument command : commands) {
+            for (Document explainable : splitStatements(command)) {
+                assertPlan(explainable);
+            }
+        }
+    }
+
+    // explain accepts a single statement, so bulk update and delete commands are explained one statement at a time.
+    private List<Document> splitStatements(BsonDocument command) {
+        Document base = new Document();
+        for (Map.Entry<String, org.bson.BsonValue> field : command.entrySet()) {
+            if (field.getKey().startsWith("$") || DRIVER_FIELDS.contains(field.getKey())) continue;
+            base.put(field.getKey(), field.getValue());
+        }
+        String statementsField = base.containsKey("updates") ? "updates" : base.containsKey("deletes") ? "deletes" : null;
+        if (statementsField == null) return List.of(base);
+
+        List<Document> statements = new ArrayList<>();
+        for (org.bson.BsonValue statement : command.getArray(statementsField)) {
+            Document single = new Document(base);
+            single.put(statementsField, List.of(statement));
+            statements.add(single);
+        }
+        return statements;
+    }
+
+    private void assertPlan(Document command) {
+        Document explain = mongoTemplate.getDb().runCommand(
+                new Document("explain", command).append("verbosity", "executionStats"));
+
+        Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+        assertFalse(usesStage(winningPlan, "COLLSCAN"), "collection scan for " + command.toJson());
+
+        Document stats = explain.get("executionStats", Document.class);
+        long examined = stats.get("totalDocsExamined", Number.class).longValue();
+        long returned = stats.get("nReturned", Number.class).longValue();
+        assertTrue(examined <= Math.max(returned, 1) * MAX_EXAMINED_PER_RETURNED,
+                examined + " documents examined for " + returned + " returned by " + command.toJson());
+    }
+
+    private boolean usesStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) return true;
+            return document.values().stream().anyMatch(value -> usesStage(value, stage));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(value -> usesStage(value, stage));
+        }
+        return false;
+    }
+}
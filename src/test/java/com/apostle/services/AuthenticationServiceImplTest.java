@@ -7,8 +7,11 @@ import com.apostle.dtos.requests.RegisterRequest;
 import com.apostle.dtos.responses.LoginResponse;
 import com.apostle.dtos.responses.RegisterResponses;
 import com.apostle.exceptions.InvalidLoginException;
+import com.apostle.exceptions.TokenRevokedException;
 import com.apostle.exceptions.UserAlreadyExistException;
 import com.apostle.services.authService.AuthenticationServiceImpl;
+import com.apostle.services.jwtService.JwtService;
+import com.apostle.services.jwtService.VerifiedAccessToken;
 import jakarta.validation.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -29,6 +32,9 @@ public class AuthenticationServiceImplTest {
     @Autowired
     private BankAccountRepository bankAccountRepository;
 
+    @Autowired
+    private JwtService jwtService;
+
     @BeforeEach
     public void beforeEach() {
         userRepository.deleteAll();
@@ -92,7 +98,7 @@ public class AuthenticationServiceImplTest {
         LoginResponse loginResponse = authenticationService.login(loginRequest);
         assertNotNull(loginResponse);
         assertTrue(loginResponse.isSuccess());
-        assertFalse(loginResponse.getToken().isEmpty());
+        assertFalse(loginResponse.getAccessToken().isEmpty());
     }
 
     @Test
@@ -156,7 +162,21 @@ public class AuthenticationServiceImplTest {
         assertEquals("User with provided credential does not exist", exception.getMessage());
     }
 
+    @Test
+    public void testLogout_revokesTheVerifiedAccessToken() {
+        RegisterRequest request = createRegisterRequest("logout@gmail.com", "logout_user", "Logout@2002");
+        authenticationService.register(request);
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(request.getEmail());
+        loginRequest.setPassword(request.getPassword());
+        LoginResponse loginResponse = authenticationService.login(loginRequest);
 
+        VerifiedAccessToken verified = jwtService.verify(loginResponse.getAccessToken());
+        assertEquals(request.getEmail().toLowerCase(), verified.subject().toLowerCase());
+        assertTrue(verified.remainingValidityMillis() > 0);
 
+        authenticationService.logout(verified);
 
+        assertThrows(TokenRevokedException.class, () -> jwtService.verify(loginResponse.getAccessToken()));
+    }
 }
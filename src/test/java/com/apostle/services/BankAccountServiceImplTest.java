@@ -8,23 +8,34 @@ import com.apostle.data.repositories.UserRepository;
 import com.apostle.dtos.requests.AddAccountRequest;
 import com.apostle.dtos.requests.LoginRequest;
 import com.apostle.dtos.requests.RegisterRequest;
+import com.apostle.dtos.responses.AccountBalanceResponse;
+import com.apostle.dtos.responses.AccountSummaryResponse;
 import com.apostle.dtos.responses.AddAccountResponse;
 import com.apostle.dtos.responses.LoginResponse;
 import com.apostle.dtos.responses.RegisterResponses;
 import com.apostle.exceptions.InsufficientBalanceException;
 import com.apostle.exceptions.UserNotFoundException;
 import com.apostle.services.authService.AuthenticationServiceImpl;
+import com.apostle.services.bankService.BalanceCache;
 import com.apostle.services.bankService.BankAccountServiceImpl;
 import com.apostle.services.jwtService.JwtService;
+import com.apostle.utils.AccountNumbers;
+import org.bson.Document;
+import org.bson.types.Decimal128;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.math.BigDecimal;
+import java.util.Map;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +57,9 @@ public class BankAccountServiceImplTest {
     @Autowired
     private BankAccountRepository bankAccountRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @BeforeEach
     public void beforeEach() {
         userRepository.deleteAll();
@@ -90,7 +104,7 @@ public class BankAccountServiceImplTest {
         assertEquals(10, createdAccount.getAccountNumber().length());
         assertEquals(BigDecimal.ZERO, createdAccount.getBalance());
         assertEquals(AccountType.SAVINGS, createdAccount.getAccountType());
-        assertNotNull(createdAccount.getUser());
+        assertNotNull(createdAccount.getUserId());
     }
 
     @Test
@@ -154,6 +168,103 @@ public class BankAccountServiceImplTest {
         assertEquals(new BigDecimal("600.00"), updated.getBalance());
     }
 
+    @Test
+    public void testCreditAndDebit_returnUpdatedBalance() {
+        RegisterRequest request = createRegisterRequest("atomic.balance@example.com", "atomicuser", "Password@2024");
+        RegisterResponses response = authenticationService.register(request);
+
+        BankAccount credited = bankAccountService.credit(response.getAccountNumber(), new BigDecimal("250.00"));
+        BankAccount debited = bankAccountService.debit(response.getAccountNumber(), new BigDecimal("100.00"));
+
+        assertEquals(new BigDecimal("250.00"), credited.getBalance());
+        assertEquals(new BigDecimal("150.00"), debited.getBalance());
+        assertEquals(credited.getVersion() + 1, debited.getVersion());
+    }
+
+    // Balances written before the numeric representation were strings; $inc and the >= guard can't use them as is.
+    @Test
+    public void testCreditAndDebit_workOnLegacyStringBalance() {
+        RegisterRequest request = createRegisterRequest("legacy.balance@example.com", "legacyuser", "Password@2024");
+        String accountNumber = authenticationService.register(request).getAccountNumber();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                Update.update("balance", "500.00"), BankAccount.class);
+
+        BankAccount debited = bankAccountService.debit(accountNumber, new BigDecimal("200.00"));
+        assertEquals(0, new BigDecimal("300.00").compareTo(debited.getBalance()));
+        assertThrows(InsufficientBalanceException.class,
+                () -> bankAccountService.debit(accountNumber, new BigDecimal("301.00")));
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                Update.update("balance", "10.00"), BankAccount.class);
+        BankAccount credited = bankAccountService.credit(accountNumber, new BigDecimal("5.00"));
+        assertEquals(0, new BigDecimal("15.00").compareTo(credited.getBalance()));
+
+        mongoTemplate.updateFirst(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                Update.update("balance", "1.00"), BankAccount.class);
+        bankAccountService.creditAll(Map.of(accountNumber, new BigDecimal("2.00")));
+        Document stored = mongoTemplate.findOne(Query.query(Criteria.where("accountNumber").is(accountNumber)),
+                Document.class, mongoTemplate.getCollectionName(BankAccount.class));
+        assertInstanceOf(Decimal128.class, stored.get("balance"));
+        assertEquals(0, new BigDecimal("3.00").compareTo(((Decimal128) stored.get("balance")).bigDecimalValue()));
+    }
+
+    @Test
+    public void testGetBalance_reflectsEachCreditAndDebit() {
+        RegisterRequest request = createRegisterRequest("cached.balance@example.com", "cacheduser", "Password@2024");
+        RegisterResponses response = authenticationService.register(request);
+        String accountNumber = response.getAccountNumber();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(bankAccountService.getBalance(accountNumber).balance()));
+        bankAccountService.credit(accountNumber, new BigDecimal("300.00"));
+        assertEquals(new BigDecimal("300.00"), bankAccountService.getBalance(accountNumber).balance());
+        bankAccountService.debit(accountNumber, new BigDecimal("120.00"));
+        assertEquals(new BigDecimal("180.00"), bankAccountService.getBalance(accountNumber).balance());
+        bankAccountService.creditAll(Map.of(accountNumber, new BigDecimal("20.00")));
+        assertEquals(new BigDecimal("200.00"), bankAccountService.getBalance(accountNumber).balance());
+    }
+
+    @Test
+    public void testAccountNumbers_areUniqueAndCarryCheckDigit() {
+        RegisterResponses first = authenticationService.register(createRegisterRequest("first.number@example.com", "firstnumber", "Password@2024"));
+        RegisterResponses second = authenticationService.register(createRegisterRequest("second.number@example.com", "secondnumber", "Password@2024"));
+
+        assertNotEquals(first.getAccountNumber(), second.getAccountNumber());
+        assertTrue(AccountNumbers.isWellFormed(first.getAccountNumber()));
+        assertTrue(AccountNumbers.isWellFormed(second.getAccountNumber()));
+
+        char last = first.getAccountNumber().charAt(9);
+        String typo = first.getAccountNumber().substring(0, 9) + (char) ('0' + (last - '0' + 1) % 10);
+        assertThrows(UserNotFoundException.class, () -> bankAccountService.credit(typo, BigDecimal.TEN));
+    }
+
+    @Test
+    public void testAccountVersion_changesOnlyWithBalance() {
+        RegisterResponses response = authenticationService.register(createRegisterRequest("version@example.com", "versionuser", "Password@2024"));
+        String accountNumber = response.getAccountNumber();
+        BankAccount account = bankAccountRepository.findByAccountNumber(accountNumber).orElseThrow();
+
+        long initial = bankAccountService.getAccountVersion(accountNumber);
+        assertEquals(initial, bankAccountService.getAccountVersion(accountNumber));
+        assertEquals(initial, bankAccountService.getAccountVersionById(account.getId()));
+
+        bankAccountService.credit(accountNumber, new BigDecimal("5.00"));
+        assertEquals(initial + 1, bankAccountService.getAccountVersion(accountNumber));
+        assertEquals(initial + 1, bankAccountService.getAccountVersionById(account.getId()));
+    }
+
+    @Test
+    public void testBalanceSnapshot_pairsBalanceWithItsVersion() {
+        RegisterResponses response = authenticationService.register(createRegisterRequest("snapshot@example.com", "snapshotuser", "Password@2024"));
+        String accountNumber = response.getAccountNumber();
+
+        BalanceCache.CachedBalance before = bankAccountService.getBalanceSnapshot(accountNumber);
+        bankAccountService.credit(accountNumber, new BigDecimal("7.00"));
+        BalanceCache.CachedBalance after = bankAccountService.getBalanceSnapshot(accountNumber);
+
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(0, before.balance().add(new BigDecimal("7.00")).compareTo(after.balance()));
+    }
+
     @Test
     public void testGetBalance_failsForInvalidAccountId() {
         String invalidAccountId = "non_existing_id";
@@ -171,7 +282,7 @@ public class BankAccountServiceImplTest {
         loginRequest.setPassword(request.getPassword());
 
         LoginResponse loginResponse = authenticationService.login(loginRequest);
-        String token = loginResponse.getToken();
+        String token = loginResponse.getAccessToken();
 
         authenticateUser(request.getEmail(), token);
 
@@ -186,6 +297,29 @@ public class BankAccountServiceImplTest {
         assertEquals(BigDecimal.ZERO, response.getBalance());
     }
 
+    @Test
+    public void testAccountsAndBalancesForCurrentUser_onlyReturnOwnAccounts() {
+        RegisterRequest request = createRegisterRequest("dashboard@example.com", "dashboard", "Password@2025");
+        RegisterResponses owner = authenticationService.register(request);
+        RegisterResponses other = authenticationService.register(createRegisterRequest("someone.else@example.com", "someoneelse", "Password@2025"));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(request.getEmail(), null, List.of()));
+        AddAccountRequest subAccRequest = new AddAccountRequest();
+        subAccRequest.setName("savings");
+        AddAccountResponse subAccount = bankAccountService.addSubAccountForCurrentUser(subAccRequest);
+        bankAccountService.credit(owner.getAccountNumber(), new BigDecimal("75.00"));
+
+        List<AccountSummaryResponse> accounts = bankAccountService.getAccountsForCurrentUser();
+        assertEquals(2, accounts.size());
+
+        List<AccountBalanceResponse> balances = bankAccountService.getBalancesForCurrentUser(List.of(
+                owner.getAccountNumber(), subAccount.getAccountNumber(), other.getAccountNumber(), "not-a-number"));
+        assertEquals(2, balances.size());
+        assertTrue(balances.stream().anyMatch(balance -> balance.accountNumber().equals(owner.getAccountNumber())
+                && new BigDecimal("75.00").equals(balance.balance())));
+    }
+
     @Test
     public void testAddSubAccount_shouldFailWhenUserDoesNotExistInDatabase() {
         UsernamePasswordAuthenticationToken authentication =
@@ -0,0 +1,154 @@
+package com.apostle.services;
+
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.model.TransactionStatus;
+import com.apostle.data.repositories.TransactionRepository;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.BatchTransferResult;
+import com.apostle.exceptions.InsufficientBalanceException;
+import com.apostle.exceptions.PartialCreditException;
+import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.transactionService.AccountNameResolver;
+import com.apostle.services.transactionService.ReceiptCache;
+import com.apostle.services.transactionService.TransactionServiceImpl;
+import com.apostle.services.transactionService.TransferSequencer;
+import com.apostle.utils.AccountNumbers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Without a Mongo transaction, a batch that fails after its debits must put every applied leg back.
+public class BatchTransferCompensationTest {
+
+    private static final String PAYER = AccountNumbers.format(10);
+    private static final String FIRST_PAYEE = AccountNumbers.format(11);
+    private static final String SECOND_PAYEE = AccountNumbers.format(12);
+
+    private final BankAccountService bankService = mock(BankAccountService.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ObjectProvider<TransactionTemplate> noTransactions = mock(ObjectProvider.class);
+        transactionService = new TransactionServiceImpl(transactionRepository, bankService, noTransactions,
+                mock(TransferSequencer.class), mock(AccountNameResolver.class), new ObjectMapper(),
+                mock(ReceiptCache.class), new RetryTemplate());
+
+        when(bankService.getAccountsByAccountNumbers(any())).thenReturn(List.of(
+                account(PAYER, "1000.00"), account(FIRST_PAYEE, "0.00"), account(SECOND_PAYEE, "0.00")));
+        when(bankService.debit(any(), any())).thenAnswer(call -> account(call.getArgument(0), "0.00"));
+        when(bankService.credit(any(), any())).thenAnswer(call -> account(call.getArgument(0), "0.00"));
+    }
+
+    @Test
+    public void testTransferBatch_creditAllFailureReversesTheDebits() {
+        doThrow(new PartialCreditException("Bulk credit stopped after 0 accounts", List.of(), null))
+                .when(bankService).creditAll(anyMap());
+
+        assertThrows(PartialCreditException.class, () -> transactionService.transferBatch(payroll()));
+
+        verify(bankService).debit(PAYER, new BigDecimal("300.00"));
+        verify(bankService).credit(PAYER, new BigDecimal("300.00"));
+        verify(bankService, times(1)).debit(any(), any());
+        verify(transactionRepository, never()).saveAll(any());
+    }
+
+    @Test
+    public void testTransferBatch_partialCreditReversesTheCreditsAlreadyApplied() {
+        doThrow(new PartialCreditException("Bulk credit stopped after 1 accounts", List.of(FIRST_PAYEE), null))
+                .when(bankService).creditAll(anyMap());
+
+        assertThrows(PartialCreditException.class, () -> transactionService.transferBatch(payroll()));
+
+        verify(bankService).credit(PAYER, new BigDecimal("300.00"));
+        verify(bankService).debit(FIRST_PAYEE, new BigDecimal("100.00"));
+        verify(bankService, never()).debit(eq(SECOND_PAYEE), any());
+    }
+
+    @Test
+    public void testTransferBatch_ledgerFailureReversesDebitsAndCredits() {
+        when(transactionRepository.saveAll(any())).thenThrow(new DataAccessResourceFailureException("ledger down"));
+
+        assertThrows(DataAccessResourceFailureException.class, () -> transactionService.transferBatch(payroll()));
+
+        verify(bankService).creditAll(Map.of(FIRST_PAYEE, new BigDecimal("100.00"), SECOND_PAYEE, new BigDecimal("200.00")));
+        verify(bankService).credit(PAYER, new BigDecimal("300.00"));
+        verify(bankService).debit(FIRST_PAYEE, new BigDecimal("100.00"));
+        verify(bankService).debit(SECOND_PAYEE, new BigDecimal("200.00"));
+    }
+
+    @Test
+    public void testTransferBatch_failedReversalIsAttachedToTheError() {
+        doThrow(new PartialCreditException("Bulk credit stopped after 0 accounts", List.of(), null))
+                .when(bankService).creditAll(anyMap());
+        InsufficientBalanceException reversalFailure = new InsufficientBalanceException("reversal failed");
+        when(bankService.credit(eq(PAYER), any())).thenThrow(reversalFailure);
+
+        PartialCreditException error = assertThrows(PartialCreditException.class,
+                () -> transactionService.transferBatch(payroll()));
+
+        assertArrayEquals(new Throwable[]{reversalFailure}, error.getSuppressed());
+    }
+
+    @Test
+    public void testTransferBatch_fallbackRecordsUnexpectedItemFailures() {
+        when(bankService.debit(PAYER, new BigDecimal("300.00")))
+                .thenThrow(new InsufficientBalanceException("Insufficient Balance"));
+        when(bankService.getAccountByAccountNumber(FIRST_PAYEE)).thenReturn(account(FIRST_PAYEE, "0.00"));
+        when(bankService.getAccountByAccountNumber(SECOND_PAYEE))
+                .thenThrow(new DataAccessResourceFailureException("accounts down"));
+
+        List<BatchTransferResult> results = transactionService.transferBatch(payroll());
+
+        assertEquals(TransactionStatus.SUCCESS, results.get(0).status());
+        assertEquals(TransactionStatus.FAILED, results.get(1).status());
+        assertEquals("Transfer could not be completed", results.get(1).message());
+        verify(bankService).debit(PAYER, new BigDecimal("100.00"));
+        verify(bankService, never()).debit(PAYER, new BigDecimal("200.00"));
+    }
+
+    @Test
+    public void testTransferBatch_rejectsEmptyItemsBeforeMovingMoney() {
+        List<SendMoneyRequest> requests = new ArrayList<>(payroll());
+        requests.add(null);
+
+        assertThrows(IllegalArgumentException.class, () -> transactionService.transferBatch(requests));
+
+        verify(bankService, never()).debit(any(), any());
+    }
+
+    private static List<SendMoneyRequest> payroll() {
+        return List.of(
+                new SendMoneyRequest(PAYER, FIRST_PAYEE, new BigDecimal("100.00"), "salary"),
+                new SendMoneyRequest(PAYER, SECOND_PAYEE, new BigDecimal("200.00"), "salary"));
+    }
+
+    private static BankAccount account(String accountNumber, String balance) {
+        return BankAccount.builder()
+                .id("id-" + accountNumber)
+                .accountNumber(accountNumber)
+                .name("holder " + accountNumber)
+                .balance(new BigDecimal(balance))
+                .version(1L)
+                .accountType(AccountType.SAVINGS)
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.apostle.services;
+
+import com.apostle.config.RetryConfig;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.repositories.BankAccountRepository;
+import com.apostle.data.repositories.TransactionRepository;
+import com.apostle.data.repositories.UserRepository;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.TransactionResponse;
+import com.apostle.services.bankService.AccountNumberAllocator;
+import com.apostle.services.bankService.BalanceCache;
+import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.bankService.BankAccountServiceImpl;
+import com.apostle.services.transactionService.AccountNameResolver;
+import com.apostle.services.transactionService.ReceiptCache;
+import com.apostle.services.transactionService.TransactionService;
+import com.apostle.services.transactionService.TransactionServiceImpl;
+import com.apostle.services.transactionService.TransferSequencer;
+import com.apostle.utils.AccountNumbers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Runs the real services behind the real retry proxies, with the repositories mocked, so no database is needed.
+public class ConflictRetryTest {
+
+    private static final String SENDER = AccountNumbers.format(1);
+    private static final String RECEIVER = AccountNumbers.format(2);
+
+    private final BankAccountRepository bankAccountRepository = mock(BankAccountRepository.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private AnnotationConfigApplicationContext context;
+
+    @AfterEach
+    public void tearDown() {
+        if (context != null) context.close();
+    }
+
+    @Test
+    public void testCredit_isRetriedByConflictRetryInterceptor() {
+        BankAccountService bankService = start(false).getBean(BankAccountService.class);
+        when(bankAccountRepository.incrementBalance(eq(RECEIVER), any()))
+                .thenThrow(new OptimisticLockingFailureException("write conflict"))
+                .thenReturn(Optional.of(account(RECEIVER, "60.00")));
+
+        BankAccount credited = bankService.credit(RECEIVER, new BigDecimal("10.00"));
+
+        assertEquals(new BigDecimal("60.00"), credited.getBalance());
+        verify(bankAccountRepository, times(2)).incrementBalance(RECEIVER, new BigDecimal("10.00"));
+    }
+
+    @Test
+    public void testTransfer_replaysTheWholeTransactionOnConflict() {
+        TransactionService transactionService = start(true).getBean(TransactionService.class);
+        stubAccounts();
+        when(bankAccountRepository.decrementBalanceIfSufficient(eq(SENDER), any()))
+                .thenThrow(new OptimisticLockingFailureException("write conflict"))
+                .thenReturn(Optional.of(account(SENDER, "90.00")));
+        when(bankAccountRepository.incrementBalance(eq(RECEIVER), any()))
+                .thenReturn(Optional.of(account(RECEIVER, "60.00")));
+
+        TransactionResponse response = transactionService.transfer(
+                new SendMoneyRequest(SENDER, RECEIVER, new BigDecimal("10.00"), "rent"));
+
+        assertNotNull(response.transactionReference());
+        // Inside the transaction the debit leg doesn't retry in place; the transaction is replayed instead.
+        verify(bankAccountRepository, times(2)).decrementBalanceIfSufficient(eq(SENDER), any());
+        verify(bankAccountRepository, times(1)).incrementBalance(eq(RECEIVER), any());
+        verify(transactionRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void testTransfer_withoutTransactionNeverReplaysTheDebit() {
+        TransactionService transactionService = start(false).getBean(TransactionService.class);
+        stubAccounts();
+        when(bankAccountRepository.decrementBalanceIfSufficient(eq(SENDER), any()))
+                .thenReturn(Optional.of(account(SENDER, "90.00")));
+        when(transactionRepository.saveAll(any()))
+                .thenThrow(new OptimisticLockingFailureException("write conflict"));
+        when(bankAccountRepository.incrementBalance(eq(RECEIVER), any()))
+                .thenReturn(Optional.of(account(RECEIVER, "60.00")));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionService.transfer(
+                new SendMoneyRequest(SENDER, RECEIVER, new BigDecimal("10.00"), "rent")));
+
+        verify(bankAccountRepository, times(1)).decrementBalanceIfSufficient(eq(SENDER), any());
+        verify(bankAccountRepository, times(1)).incrementBalance(eq(RECEIVER), any());
+    }
+
+    private AnnotationConfigApplicationContext start(boolean transactional) {
+        context = new AnnotationConfigApplicationContext();
+        context.register(RetryTestConfig.class);
+        context.registerBean(BankAccountRepository.class, () -> bankAccountRepository);
+        context.registerBean(TransactionRepository.class, () -> transactionRepository);
+        context.registerBean(UserRepository.class, () -> mock(UserRepository.class));
+        context.registerBean(Validator.class, () -> mock(Validator.class));
+        context.registerBean(BalanceCache.class, () -> mock(BalanceCache.class));
+        context.registerBean(AccountNumberAllocator.class, () -> mock(AccountNumberAllocator.class));
+        context.registerBean(TransferSequencer.class, () -> mock(TransferSequencer.class));
+        context.registerBean(AccountNameResolver.class, () -> mock(AccountNameResolver.class));
+        context.registerBean(ReceiptCache.class, () -> mock(ReceiptCache.class));
+        if (transactional) {
+            context.registerBean(TransactionTemplate.class, () -> new TransactionTemplate(new InMemoryTransactionManager()));
+        }
+        context.refresh();
+        return context;
+    }
+
+    private void stubAccounts() {
+        when(bankAccountRepository.findByAccountNumber(SENDER)).thenReturn(Optional.of(account(SENDER, "100.00")));
+        when(bankAccountRepository.findByAccountNumber(RECEIVER)).thenReturn(Optional.of(account(RECEIVER, "50.00")));
+    }
+
+    private static BankAccount account(String accountNumber, String balance) {
+        return BankAccount.builder()
+                .id("id-" + accountNumber)
+                .accountNumber(accountNumber)
+                .name("holder " + accountNumber)
+                .balance(new BigDecimal(balance))
+                .version(1L)
+                .accountType(AccountType.SAVINGS)
+                .build();
+    }
+
+    @Configuration
+    @EnableRetry
+    @Import({RetryConfig.class, BankAccountServiceImpl.class, TransactionServiceImpl.class})
+    static class RetryTestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    // Marks a real transaction as active, which is what the retry policy checks, without any resource behind it.
+    static class InMemoryTransactionManager extends AbstractPlatformTransactionManager {
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
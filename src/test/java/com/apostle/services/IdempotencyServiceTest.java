@@ -0,0 +1,247 @@
+package com.apostle.services;
+
+import com.apostle.data.model.TransactionStatus;
+import com.apostle.data.model.TransactionType;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.TransactionResponse;
+import com.apostle.exceptions.IdempotencyConflictException;
+import com.apostle.services.idempotencyService.IdempotencyService;
+import com.apostle.utils.AccountNumbers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+// Redis is a map behind a mocked template, shared by every service instance so two instances act as two nodes.
+public class IdempotencyServiceTest {
+
+    private static final String KEY = "key-1";
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final AtomicInteger executions = new AtomicInteger();
+    private ValueOperations<String, String> values;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.get(anyString())).thenAnswer(call -> redis.get(call.<String>getArgument(0)));
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(call -> redis.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+        doAnswer(call -> redis.put(call.getArgument(0), call.getArgument(1)))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+        when(redisTemplate.delete(anyString())).thenAnswer(call -> redis.remove(call.<String>getArgument(0)) != null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testExecute_sameKeyReplaysTheFirstResponse() {
+        IdempotencyService service = node();
+
+        TransactionResponse first = service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-1"));
+        TransactionResponse replay = service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2"));
+
+        assertEquals("REF-1", replay.transactionReference());
+        assertEquals(first, replay);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_withoutKeyRunsEveryTime() {
+        IdempotencyService service = node();
+
+        service.execute("transfer", null, rent("10.00"), () -> transfer("REF-1"));
+        service.execute("transfer", " ", rent("10.00"), () -> transfer("REF-2"));
+
+        assertEquals(2, executions.get());
+        assertTrue(redis.isEmpty());
+    }
+
+    @Test
+    public void testExecute_concurrentFirstUseOnOneNodeRunsOnce() throws Exception {
+        IdempotencyService service = node();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TransactionResponse> first = executor.submit(() ->
+                service.execute("transfer", KEY, rent("10.00"), blockingTransfer("REF-1", started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Future<TransactionResponse> duplicate = executor.submit(() ->
+                service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2")));
+        release.countDown();
+
+        assertEquals("REF-1", first.get(5, TimeUnit.SECONDS).transactionReference());
+        assertEquals("REF-1", duplicate.get(5, TimeUnit.SECONDS).transactionReference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_concurrentFirstUseOnTwoNodesRunsOnce() throws Exception {
+        IdempotencyService firstNode = node();
+        IdempotencyService secondNode = node();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TransactionResponse> first = executor.submit(() ->
+                firstNode.execute("transfer", KEY, rent("10.00"), blockingTransfer("REF-1", started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // The second node finds the pending entry and polls it until the first node stores its response.
+        Future<TransactionResponse> duplicate = executor.submit(() ->
+                secondNode.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2")));
+        release.countDown();
+
+        assertEquals("REF-1", first.get(5, TimeUnit.SECONDS).transactionReference());
+        assertEquals("REF-1", duplicate.get(5, TimeUnit.SECONDS).transactionReference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_keyReusedForDifferentPayloadIsRefused() {
+        IdempotencyService service = node();
+        service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-1"));
+
+        assertThrows(IdempotencyConflictException.class,
+                () -> service.execute("transfer", KEY, rent("99.00"), () -> transfer("REF-2")));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_keyReusedForDifferentPayloadWhileInFlightIsRefused() throws Exception {
+        IdempotencyService service = node();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<TransactionResponse> first = executor.submit(() ->
+                service.execute("transfer", KEY, rent("10.00"), blockingTransfer("REF-1", started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        try {
+            assertThrows(IdempotencyConflictException.class,
+                    () -> service.execute("transfer", KEY, rent("99.00"), () -> transfer("REF-2")));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals("REF-1", first.get(5, TimeUnit.SECONDS).transactionReference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_failureInsideATransactionFreesTheKey() {
+        IdempotencyService service = node(true);
+
+        assertThrows(IllegalStateException.class, () -> service.execute("transfer", KEY, rent("10.00"), () -> {
+            throw new IllegalStateException("ledger down");
+        }));
+        TransactionResponse retry = service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2"));
+
+        assertEquals("REF-2", retry.transactionReference());
+    }
+
+    @Test
+    public void testExecute_failureWithoutATransactionKeepsTheKey() {
+        IdempotencyService service = node();
+
+        assertThrows(IllegalStateException.class, () -> service.execute("transfer", KEY, rent("10.00"), () -> {
+            throw new IllegalStateException("ledger down after the debit");
+        }));
+
+        // The debit may have landed, so the same key must not run the transfer again.
+        assertThrows(IdempotencyConflictException.class,
+                () -> service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2")));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void testExecute_responseThatCannotBeStoredIsStillReturned() {
+        IdempotencyService service = node();
+        doThrow(new RedisConnectionFailureException("connection reset"))
+                .when(values).set(anyString(), anyString(), any(Duration.class));
+
+        TransactionResponse response = service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-1"));
+
+        assertEquals("REF-1", response.transactionReference());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testExecute_entryWithoutFingerprintIsReportedAsCorrupt() {
+        IdempotencyService service = node();
+        redis.put("idempotency:transfer:anonymous:" + KEY, "garbage");
+
+        assertThrows(IllegalStateException.class,
+                () -> service.execute("transfer", KEY, rent("10.00"), () -> transfer("REF-2")));
+        assertEquals(0, executions.get());
+    }
+
+    private IdempotencyService node() {
+        return node(false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private IdempotencyService node(boolean transactional) {
+        ObjectProvider<TransactionTemplate> transactions = mock(ObjectProvider.class);
+        when(transactions.getIfAvailable()).thenReturn(transactional ? new TransactionTemplate() : null);
+        IdempotencyService service = new IdempotencyService(redisTemplate, objectMapper, transactions);
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "lockSeconds", 5L);
+        return service;
+    }
+
+    private TransactionResponse transfer(String reference) {
+        executions.incrementAndGet();
+        return response(reference);
+    }
+
+    private Supplier<TransactionResponse> blockingTransfer(String reference, CountDownLatch started, CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return transfer(reference);
+        };
+    }
+
+    private static SendMoneyRequest rent(String amount) {
+        return new SendMoneyRequest(AccountNumbers.format(1), AccountNumbers.format(2), new BigDecimal(amount), "rent");
+    }
+
+    private static TransactionResponse response(String reference) {
+        return new TransactionResponse(reference, new BigDecimal("10.00"), TransactionType.DEBIT,
+                TransactionStatus.SUCCESS, "rent", LocalDateTime.of(2026, 1, 1, 12, 0), "holder");
+    }
+}
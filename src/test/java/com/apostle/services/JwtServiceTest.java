@@ -0,0 +1,85 @@
+package com.apostle.services;
+
+import com.apostle.data.model.Role;
+import com.apostle.exceptions.TokenRevokedException;
+import com.apostle.services.jwtService.JwtService;
+import com.apostle.services.redisService.TokenBlacklistService;
+import com.apostle.services.redisService.TokenEpochService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Epoch checks against a mocked Redis; the 5 second epoch cache is left at its real setting.
+public class JwtServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String EMAIL = "ada@example.com";
+    private static final String EPOCH_KEY = "token-epoch:" + USER_ID;
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final ValueOperations<String, String> values = mockValues();
+    private TokenEpochService tokenEpochService;
+    private JwtService jwtService;
+
+    @BeforeEach
+    public void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        tokenEpochService = new TokenEpochService(redisTemplate, mock(RedisMessageListenerContainer.class),
+                new SimpleMeterRegistry(), 1_000, 5_000);
+        jwtService = new JwtService(mock(TokenBlacklistService.class), tokenEpochService,
+                "a-test-signing-secret-that-is-at-least-256-bits-long", 900_000);
+    }
+
+    @Test
+    public void testLoginRightAfterRevokeAllOnThisNode_getsAWorkingToken() {
+        String before = jwtService.generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+        when(redisTemplate.execute(any(), eq(List.of(EPOCH_KEY)), any(), any())).thenReturn(1L);
+        when(values.get(EPOCH_KEY)).thenReturn("1");
+
+        tokenEpochService.revokeAll(USER_ID);
+        String after = jwtService.generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+
+        assertThrows(TokenRevokedException.class, () -> jwtService.verify(before));
+        assertEquals(USER_ID, jwtService.verify(after).userId());
+    }
+
+    @Test
+    public void testLoginRightAfterRevokeAllOnAnotherNode_isNotStampedWithTheCachedEpoch() {
+        // This node has epoch 0 cached; the sign-out happens elsewhere and its announcement hasn't arrived.
+        String before = jwtService.generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+        assertEquals(USER_ID, jwtService.verify(before).userId());
+        when(values.get(EPOCH_KEY)).thenReturn("1");
+
+        String after = jwtService.generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+
+        assertEquals(USER_ID, jwtService.verify(after).userId());
+        // Reading the new epoch to issue also retires the old tokens here without waiting out the cache.
+        assertThrows(TokenRevokedException.class, () -> jwtService.verify(before));
+    }
+
+    @Test
+    public void testVerify_usesTheCachedEpoch() {
+        String token = jwtService.generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+
+        jwtService.verify(token);
+        jwtService.verify(token);
+
+        // One read to issue; both verifications are answered from the cache it filled.
+        verify(values, times(1)).get(EPOCH_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueOperations<String, String> mockValues() {
+        return mock(ValueOperations.class);
+    }
+}
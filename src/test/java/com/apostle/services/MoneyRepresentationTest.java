@@ -0,0 +1,69 @@
+package com.apostle.services;
+
+import com.apostle.config.MoneyRepresentation;
+import com.apostle.dtos.requests.DepositRequest;
+import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.utils.AccountNumbers;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyRepresentationTest {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator validator;
+
+    @BeforeAll
+    public static void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void testDepositRequest_rejectsMoreThanTwoDecimals() {
+        DepositRequest request = new DepositRequest(AccountNumbers.format(1), new BigDecimal("10.005"), "cash");
+
+        assertEquals(1, validator.validate(request).size());
+    }
+
+    @Test
+    public void testSendMoneyRequest_rejectsMoreThanTwoDecimals() {
+        SendMoneyRequest request = new SendMoneyRequest(AccountNumbers.format(1), AccountNumbers.format(2),
+                new BigDecimal("10.005"), "rent");
+
+        assertEquals(1, validator.validate(request).size());
+    }
+
+    @Test
+    public void testDepositRequest_acceptsTwoDecimals() {
+        DepositRequest request = new DepositRequest(AccountNumbers.format(1), new BigDecimal("10.50"), "cash");
+
+        assertTrue(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    public void testToStored_minorUnitsConvertsToWholeCents() {
+        assertEquals(1050L, MoneyRepresentation.MINOR_UNITS.toStored(new BigDecimal("10.50")));
+        assertEquals(1000L, MoneyRepresentation.MINOR_UNITS.toStored(new BigDecimal("10.0000")));
+    }
+
+    @Test
+    public void testToStored_minorUnitsRejectsSubCentAmountsWithClearError() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> MoneyRepresentation.MINOR_UNITS.toStored(new BigDecimal("10.005")));
+
+        assertTrue(error.getMessage().contains("10.005"));
+    }
+}
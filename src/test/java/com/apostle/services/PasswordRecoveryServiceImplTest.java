@@ -62,7 +62,7 @@ public class PasswordRecoveryServiceImplTest {
         List<PasswordResetToken> tokens = passwordResetTokenRepository.findAll();
 
         assertEquals(1, tokens.size());
-        assertEquals(forgotPasswordRequest.getEmail(), tokens.get(0).getUser().getEmail());
+        assertEquals(userRepository.findUserByEmail(forgotPasswordRequest.getEmail()).get().getId(), tokens.get(0).getUserId());
     }
 
     @Test
@@ -88,6 +88,28 @@ public class PasswordRecoveryServiceImplTest {
         assertEquals("Password reset successful", resetPasswordResponse.getMessage());
     }
 
+    @Test
+    public void testResetPassword_deletesTheTokenSoItCannotBeReused(){
+        RegisterRequest registerRequest = createRegisterRequest("reuse@gmail.com", "reuser", "MyPassword@2025");
+        authenticationService.register(registerRequest);
+
+        ForgotPasswordRequest forgotPasswordRequest = new ForgotPasswordRequest();
+        forgotPasswordRequest.setEmail(registerRequest.getEmail());
+        passwordRecoveryService.sendResetToken(forgotPasswordRequest);
+
+        String tokenString = passwordResetTokenRepository.findAll().get(0).getToken();
+        assertEquals(36, tokenString.length());
+
+        ResetPasswordRequest resetPasswordRequest = new ResetPasswordRequest();
+        resetPasswordRequest.setToken(tokenString);
+        resetPasswordRequest.setNewPassword("MyNewPassword@2002");
+        passwordRecoveryService.resetPassword(resetPasswordRequest);
+
+        assertTrue(passwordResetTokenRepository.findByToken(tokenString).isEmpty());
+        Exception exception = assertThrows(InvalidResetTokenException.class, () -> passwordRecoveryService.resetPassword(resetPasswordRequest));
+        assertEquals("Invalid token", exception.getMessage());
+    }
+
     @Test
     public void testResetPassword_failsForInvalidToken(){
         ResetPasswordRequest resetPasswordRequest = new ResetPasswordRequest();
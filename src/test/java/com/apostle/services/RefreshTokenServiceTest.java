@@ -0,0 +1,140 @@
+package com.apostle.services;
+
+import com.apostle.data.model.RefreshToken;
+import com.apostle.data.model.Role;
+import com.apostle.data.model.User;
+import com.apostle.data.repositories.RefreshTokenRepository;
+import com.apostle.data.repositories.UserRepository;
+import com.apostle.exceptions.InvalidLoginException;
+import com.apostle.services.jwtService.JwtService;
+import com.apostle.services.redisService.RedisService;
+import com.apostle.services.redisService.TokenEpochService;
+import com.apostle.services.refreshService.RefreshTokenService;
+import com.apostle.utils.RefreshTokenGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Counts the round trips a refresh makes, with every store mocked.
+public class RefreshTokenServiceTest {
+
+    private static final String USER_ID = "user-1";
+    private static final String EMAIL = "ada@example.com";
+    private static final String PRESENTED = "presented-refresh-token";
+
+    private final RefreshTokenRepository refreshTokenRepository = mock(RefreshTokenRepository.class);
+    private final RedisService redisService = mock(RedisService.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private final TokenEpochService tokenEpochService = mock(TokenEpochService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    public void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, redisService, jwtService,
+                tokenEpochService, userRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 604_800_000L);
+        when(jwtService.generateJwtToken(anyString(), anyString(), any())).thenReturn("new-access-token");
+    }
+
+    @Test
+    public void testCreateRefreshToken_storesTheEmail() {
+        refreshTokenService.createRefreshToken(USER_ID, EMAIL, Role.CUSTOMER);
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(EMAIL, saved.getValue().getEmail());
+        assertEquals(USER_ID, saved.getValue().getUserId());
+    }
+
+    @Test
+    public void testRefreshAccessToken_makesOneCallPerStore() {
+        when(refreshTokenRepository.claimUsable(eq(RefreshTokenGenerator.hashToken(PRESENTED)), any()))
+                .thenReturn(Optional.of(storedToken(EMAIL)));
+
+        Map<String, String> tokens = refreshTokenService.refreshAccessToken(PRESENTED);
+
+        assertEquals("new-access-token", tokens.get("accessToken"));
+        assertNotNull(tokens.get("refreshToken"));
+        verify(refreshTokenRepository, times(1)).claimUsable(anyString(), any());
+        verify(refreshTokenRepository, never()).findByToken(anyString());
+        verify(refreshTokenRepository, times(1)).revokeAllByUserId(USER_ID);
+        verify(refreshTokenRepository, times(1)).save(any());
+        verifyNoInteractions(userRepository);
+        verify(jwtService, times(1)).generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+        verify(redisService, times(1)).cacheRefreshToken(eq(USER_ID), anyString(), anyLong());
+        verifyNoMoreInteractions(redisService);
+    }
+
+    @Test
+    public void testRefreshAccessToken_tokenWithoutEmailFallsBackToTheUser() {
+        when(refreshTokenRepository.claimUsable(eq(RefreshTokenGenerator.hashToken(PRESENTED)), any()))
+                .thenReturn(Optional.of(storedToken(null)));
+        User user = new User();
+        user.setEmail(EMAIL);
+        when(userRepository.findEmailById(USER_ID)).thenReturn(Optional.of(user));
+
+        refreshTokenService.refreshAccessToken(PRESENTED);
+
+        verify(userRepository, times(1)).findEmailById(USER_ID);
+        verify(jwtService).generateJwtToken(EMAIL, USER_ID, Role.CUSTOMER);
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals(EMAIL, saved.getValue().getEmail());
+    }
+
+    @Test
+    public void testRefreshAccessToken_onlyOneOfTwoRefreshesWithTheSameTokenMints() {
+        // The first claim revokes the token, so the second finds nothing usable.
+        when(refreshTokenRepository.claimUsable(eq(RefreshTokenGenerator.hashToken(PRESENTED)), any()))
+                .thenReturn(Optional.of(storedToken(EMAIL)))
+                .thenReturn(Optional.empty());
+        RefreshToken revoked = storedToken(EMAIL);
+        revoked.setRevoked(true);
+        when(refreshTokenRepository.findByToken(RefreshTokenGenerator.hashToken(PRESENTED))).thenReturn(Optional.of(revoked));
+
+        refreshTokenService.refreshAccessToken(PRESENTED);
+        InvalidLoginException error = assertThrows(InvalidLoginException.class,
+                () -> refreshTokenService.refreshAccessToken(PRESENTED));
+
+        assertEquals("Expired or revoked refresh token", error.getMessage());
+        verify(jwtService, times(1)).generateJwtToken(anyString(), anyString(), any());
+        verify(refreshTokenRepository, times(1)).save(any());
+    }
+
+    @Test
+    public void testRefreshAccessToken_unknownTokenIsReportedAsInvalid() {
+        when(refreshTokenRepository.claimUsable(anyString(), any())).thenReturn(Optional.empty());
+        when(refreshTokenRepository.findByToken(anyString())).thenReturn(Optional.empty());
+
+        InvalidLoginException error = assertThrows(InvalidLoginException.class,
+                () -> refreshTokenService.refreshAccessToken(PRESENTED));
+
+        assertEquals("Invalid refresh token", error.getMessage());
+        verifyNoInteractions(jwtService);
+    }
+
+    private static RefreshToken storedToken(String email) {
+        return RefreshToken.builder()
+                .id("token-id")
+                .userId(USER_ID)
+                .email(email)
+                .token(RefreshTokenGenerator.hashToken(PRESENTED))
+                .expiryDate(Instant.now().plusSeconds(3600))
+                .revoked(false)
+                .role(Role.CUSTOMER)
+                .build();
+    }
+}
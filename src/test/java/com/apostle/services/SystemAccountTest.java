@@ -0,0 +1,94 @@
+package com.apostle.services;
+
+import com.apostle.config.MongoIndexInitializer;
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.data.repositories.BankAccountRepository;
+import com.apostle.data.repositories.UserRepository;
+import com.apostle.services.bankService.AccountNumberAllocator;
+import com.apostle.services.bankService.BalanceCache;
+import com.apostle.services.bankService.BankAccountServiceImpl;
+import com.apostle.services.bankService.SystemAccountInitializer;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class SystemAccountTest {
+
+    private final BankAccountRepository bankAccountRepository = mock(BankAccountRepository.class);
+    private final BankAccountServiceImpl bankService = new BankAccountServiceImpl(bankAccountRepository,
+            mock(UserRepository.class), mock(Validator.class), mock(BalanceCache.class), mock(AccountNumberAllocator.class));
+
+    @Test
+    public void testInitializer_runsAfterTheIndexesAreBuilt() {
+        SystemAccountInitializer initializer = new SystemAccountInitializer(bankAccountRepository);
+        MongoIndexInitializer indexes = new MongoIndexInitializer(null, null);
+        List<Object> runners = new ArrayList<>(List.of(initializer, indexes));
+
+        AnnotationAwareOrderComparator.sort(runners);
+
+        assertEquals(List.of(indexes, initializer), runners);
+    }
+
+    @Test
+    public void testInitializer_upsertsTheSystemAccount() {
+        when(bankAccountRepository.findOrCreate(any())).thenReturn(systemAccount("0.00"));
+
+        new SystemAccountInitializer(bankAccountRepository).run(null);
+
+        ArgumentCaptor<BankAccount> upserted = ArgumentCaptor.forClass(BankAccount.class);
+        verify(bankAccountRepository).findOrCreate(upserted.capture());
+        assertEquals(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID, upserted.getValue().getAccountNumber());
+        assertEquals(AccountType.SYSTEM, upserted.getValue().getAccountType());
+    }
+
+    @Test
+    public void testGetSystemAccount_returnsTheLiveBalance() {
+        when(bankAccountRepository.findByAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID))
+                .thenReturn(Optional.of(systemAccount("0.00")))
+                .thenReturn(Optional.of(systemAccount("250.00")));
+
+        assertEquals(new BigDecimal("0.00"), bankService.getSystemAccount().getBalance());
+        assertEquals(new BigDecimal("250.00"), bankService.getSystemAccount().getBalance());
+    }
+
+    @Test
+    public void testGetSystemAccountId_readsTheAccountOnlyOnce() {
+        when(bankAccountRepository.findByAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID))
+                .thenReturn(Optional.of(systemAccount("0.00")));
+
+        assertEquals("system-id", bankService.getSystemAccountId());
+        assertEquals("system-id", bankService.getSystemAccountId());
+
+        verify(bankAccountRepository, times(1)).findByAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID);
+    }
+
+    @Test
+    public void testGetSystemAccount_beforeProvisioningFailsClearly() {
+        when(bankAccountRepository.findByAccountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID))
+                .thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, bankService::getSystemAccount);
+    }
+
+    private static BankAccount systemAccount(String balance) {
+        return BankAccount.builder()
+                .id("system-id")
+                .accountNumber(BankAccountServiceImpl.SYSTEM_ACCOUNT_ID)
+                .name("Platform System Account")
+                .balance(new BigDecimal(balance))
+                .version(1L)
+                .accountType(AccountType.SYSTEM)
+                .build();
+    }
+}
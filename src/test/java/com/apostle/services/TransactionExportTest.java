@@ -0,0 +1,93 @@
+package com.apostle.services;
+
+import com.apostle.data.model.Transaction;
+import com.apostle.data.model.TransactionStatus;
+import com.apostle.data.model.TransactionType;
+import com.apostle.data.repositories.TransactionRepository;
+import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.transactionService.AccountNameResolver;
+import com.apostle.services.transactionService.ReceiptCache;
+import com.apostle.services.transactionService.StatementFormat;
+import com.apostle.services.transactionService.TransactionServiceImpl;
+import com.apostle.services.transactionService.TransferSequencer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class TransactionExportTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AccountNameResolver accountNameResolver = mock(AccountNameResolver.class);
+    private TransactionServiceImpl transactionService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        transactionService = new TransactionServiceImpl(transactionRepository, mock(BankAccountService.class),
+                mock(ObjectProvider.class), mock(TransferSequencer.class), accountNameResolver, new ObjectMapper(),
+                mock(ReceiptCache.class), new RetryTemplate());
+        when(accountNameResolver.resolve(any())).thenReturn(Map.of("0000000002", "Old Payee", "0000000003", "Other Payee"));
+    }
+
+    @Test
+    public void testExportTransactions_resolvesMissingNamesOncePerBatch() throws Exception {
+        when(transactionRepository.streamHistory(any(), any(), any())).thenReturn(Stream.of(
+                row("ref-1", "0000000002", null, "rent"),
+                row("ref-2", "0000000003", null, "food"),
+                row("ref-3", "0000000004", "Named Payee", "gift")));
+
+        String csv = export();
+
+        verify(accountNameResolver, times(1)).resolve(Set.of("0000000002", "0000000003"));
+        assertTrue(csv.contains("Old Payee"));
+        assertTrue(csv.contains("Other Payee"));
+        assertTrue(csv.contains("Named Payee"));
+    }
+
+    @Test
+    public void testExportTransactions_csvKeepsFormulaLikeValuesAsText() throws Exception {
+        when(transactionRepository.streamHistory(any(), any(), any())).thenReturn(Stream.of(
+                row("ref-1", "0000000004", "@Payee", "=HYPERLINK(\"http://example.com\")"),
+                row("ref-2", "0000000004", "+Payee", "-1+2")));
+
+        String[] lines = export().split("\n");
+
+        assertTrue(lines[1].endsWith(",'@Payee,\"'=HYPERLINK(\"\"http://example.com\"\")\""));
+        assertTrue(lines[2].endsWith(",'+Payee,'-1+2"));
+    }
+
+    private String export() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionService.exportTransactions("account-1", LocalDateTime.now().minusDays(1), LocalDateTime.now(),
+                StatementFormat.CSV, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static Transaction row(String reference, String receiverAccountNumber, String receiverName, String note) {
+        return Transaction.builder()
+                .transactionReference(reference)
+                .receiverAccountNumber(receiverAccountNumber)
+                .receiverName(receiverName)
+                .amount(new BigDecimal("10.00"))
+                .status(TransactionStatus.SUCCESS)
+                .type(TransactionType.DEBIT)
+                .note(note)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
@@ -10,18 +10,24 @@ import com.apostle.data.repositories.UserRepository;
 import com.apostle.dtos.requests.DepositRequest;
 import com.apostle.dtos.requests.RegisterRequest;
 import com.apostle.dtos.requests.SendMoneyRequest;
+import com.apostle.dtos.responses.BatchTransferResult;
 import com.apostle.dtos.responses.RegisterResponses;
+import com.apostle.dtos.responses.TransactionHistoryPage;
 import com.apostle.dtos.responses.TransactionResponse;
 import com.apostle.services.authService.AuthenticationServiceImpl;
 import com.apostle.services.bankService.BankAccountService;
+import com.apostle.services.transactionService.StatementFormat;
 import com.apostle.services.transactionService.TransactionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -71,7 +77,7 @@ public class TransactionServiceImplTest {
         assertTrue(response.isSuccess());
 
         User user = userRepository.findUserByEmail(registerRequest.getEmail()).orElseThrow();
-        BankAccount account = bankAccountRepository.findByUserId(user.getId()).orElseThrow();
+        BankAccount account = bankAccountRepository.findAllByUserId(user.getId()).get(0);
         String accountNumber = account.getAccountNumber();
 
         BigDecimal depositAmount = new BigDecimal("1000.00");
@@ -101,7 +107,7 @@ public class TransactionServiceImplTest {
     public void testDeposit_withZeroAmount_shouldThrowException() {
         RegisterRequest registerRequest = createRegisterRequest("zero.amount@example.com", "zeroUser", "User@2024");
         authenticationService.register(registerRequest);
-        BankAccount account = bankAccountRepository.findByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get();
+        BankAccount account = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get(0);
 
         DepositRequest request = new DepositRequest(account.getAccountNumber(), BigDecimal.ZERO, "Zero amount");
 
@@ -114,7 +120,7 @@ public class TransactionServiceImplTest {
     public void testDeposit_withNegativeAmount_shouldThrowException() {
         RegisterRequest registerRequest = createRegisterRequest("negative.amount@example.com", "negativeUser", "Password@2024");
         authenticationService.register(registerRequest);
-        BankAccount account = bankAccountRepository.findByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get();
+        BankAccount account = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get(0);
 
         DepositRequest request = new DepositRequest(account.getAccountNumber(), new BigDecimal("-500.00"), "Negative deposit");
 
@@ -127,13 +133,13 @@ public class TransactionServiceImplTest {
     public void testTransfer_successful() {
         RegisterRequest senderRequest = createRegisterRequest("sender@example.com", "senderUser", "Password@123");
         authenticationService.register(senderRequest);
-        BankAccount senderAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get();
+        BankAccount senderAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get(0);
 
         bankAccountService.credit(senderAccount.getAccountNumber(), new BigDecimal("2000"));
 
         RegisterRequest receiverRequest = createRegisterRequest("receiver@example.com", "receiverUser", "Password@123");
         authenticationService.register(receiverRequest);
-        BankAccount receiverAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get();
+        BankAccount receiverAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get(0);
 
         SendMoneyRequest transferRequest = new SendMoneyRequest(
                 senderAccount.getAccountNumber(),
@@ -160,9 +166,9 @@ public class TransactionServiceImplTest {
     public void testTransfer_sameSenderAndReceiver_shouldThrowException() {
         RegisterRequest request = createRegisterRequest("same@example.com", "sameUser", "Password@123");
         authenticationService.register(request);
-        BankAccount account = bankAccountRepository.findByUserId(
+        BankAccount account = bankAccountRepository.findAllByUserId(
                 userRepository.findUserByEmail(request.getEmail()).get().getId()
-        ).get();
+        ).get(0);
 
         SendMoneyRequest transferRequest = new SendMoneyRequest(
                 account.getAccountNumber(),
@@ -182,11 +188,11 @@ public class TransactionServiceImplTest {
     public void testTransfer_zeroAmount_shouldThrowException() {
         RegisterRequest senderRequest = createRegisterRequest("zeroamount@example.com", "zeroUser", "Password@123");
         authenticationService.register(senderRequest);
-        BankAccount senderAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get();
+        BankAccount senderAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get(0);
 
         RegisterRequest receiverRequest = createRegisterRequest("receiverzero@example.com", "recvUser", "Password@123");
         authenticationService.register(receiverRequest);
-        BankAccount receiverAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get();
+        BankAccount receiverAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get(0);
 
         SendMoneyRequest request = new SendMoneyRequest(
                 senderAccount.getAccountNumber(),
@@ -206,11 +212,11 @@ public class TransactionServiceImplTest {
     public void testTransfer_insufficientBalance_shouldThrowException() {
         RegisterRequest senderRequest = createRegisterRequest("nobalance@example.com", "noBalUser", "Password@123");
         authenticationService.register(senderRequest);
-        BankAccount senderAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get();
+        BankAccount senderAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get(0);
 
         RegisterRequest receiverRequest = createRegisterRequest("recv.nobalance@example.com", "recvNoBal", "Password@123");
         authenticationService.register(receiverRequest);
-        BankAccount receiverAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get();
+        BankAccount receiverAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get(0);
 
         SendMoneyRequest transferRequest = new SendMoneyRequest(
                 senderAccount.getAccountNumber(),
@@ -232,8 +238,8 @@ public class TransactionServiceImplTest {
 
         RegisterRequest receiverRegisterRequest = createRegisterRequest("receiver@gmail.com", "John_Adah", "Password@123");
         authenticationService.register(receiverRegisterRequest);
-        BankAccount senderAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(senderRegisterRequest.getEmail()).get().getId()).get();
-        BankAccount receiverAccount = bankAccountRepository.findByUserId(userRepository.findUserByEmail(receiverRegisterRequest.getEmail()).get().getId()).get();
+        BankAccount senderAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(senderRegisterRequest.getEmail()).get().getId()).get(0);
+        BankAccount receiverAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(receiverRegisterRequest.getEmail()).get().getId()).get(0);
 
         transactionService.deposit(new DepositRequest(senderAccount.getAccountNumber(), new BigDecimal("1000"), "Initial deposit"));
 
@@ -260,4 +266,86 @@ public class TransactionServiceImplTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testGetTransactionHistory_walksAllPagesWithCursor() {
+        RegisterRequest registerRequest = createRegisterRequest("history@example.com", "historyUser", "Password@123");
+        authenticationService.register(registerRequest);
+        BankAccount account = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get(0);
+
+        for (int i = 1; i <= 5; i++) {
+            transactionService.deposit(new DepositRequest(account.getAccountNumber(), new BigDecimal(i), "deposit " + i));
+        }
+
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        LocalDateTime end = LocalDateTime.now().plusDays(1);
+        List<TransactionResponse> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransactionHistoryPage page = transactionService.getTransactionHistory(account.getId(), start, end, cursor, 2);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(5, seen.size());
+        assertEquals(5, seen.stream().map(TransactionResponse::transactionReference).distinct().count());
+        assertTrue(seen.stream().allMatch(response -> account.getName().equals(response.receiverName())));
+        for (int i = 1; i < seen.size(); i++) {
+            assertFalse(seen.get(i).timeStamp().isAfter(seen.get(i - 1).timeStamp()));
+        }
+    }
+
+    @Test
+    public void testExportTransactions_writesCsvRowsNewestFirst() throws Exception {
+        RegisterRequest registerRequest = createRegisterRequest("export@example.com", "exportUser", "Password@123");
+        authenticationService.register(registerRequest);
+        BankAccount account = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(registerRequest.getEmail()).get().getId()).get(0);
+
+        transactionService.deposit(new DepositRequest(account.getAccountNumber(), new BigDecimal("10.00"), "first"));
+        transactionService.deposit(new DepositRequest(account.getAccountNumber(), new BigDecimal("20.00"), "second, with comma"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        transactionService.exportTransactions(account.getId(), LocalDateTime.now().minusDays(1), LocalDateTime.now().plusDays(1),
+                StatementFormat.CSV, out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transactionReference,"));
+        assertTrue(lines[1].contains("20.00") && lines[1].endsWith("\"second, with comma\""));
+        assertTrue(lines[2].contains("10.00"));
+    }
+
+    @Test
+    public void testTransferBatch_appliesValidItemsAndReportsFailures() {
+        RegisterRequest senderRequest = createRegisterRequest("batch.sender@example.com", "batchSender", "Password@123");
+        authenticationService.register(senderRequest);
+        BankAccount senderAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(senderRequest.getEmail()).get().getId()).get(0);
+
+        RegisterRequest receiverRequest = createRegisterRequest("batch.receiver@example.com", "batchReceiver", "Password@123");
+        authenticationService.register(receiverRequest);
+        BankAccount receiverAccount = bankAccountRepository.findAllByUserId(userRepository.findUserByEmail(receiverRequest.getEmail()).get().getId()).get(0);
+
+        bankAccountService.credit(senderAccount.getAccountNumber(), new BigDecimal("1000.00"));
+
+        String sender = senderAccount.getAccountNumber();
+        String receiver = receiverAccount.getAccountNumber();
+        List<BatchTransferResult> results = transactionService.transferBatch(List.of(
+                new SendMoneyRequest(sender, receiver, new BigDecimal("300.00"), "first"),
+                new SendMoneyRequest(sender, receiver, new BigDecimal("800.00"), "too much"),
+                new SendMoneyRequest(sender, sender, new BigDecimal("10.00"), "self"),
+                new SendMoneyRequest(sender, receiver, new BigDecimal("200.00"), "second")
+        ));
+
+        assertEquals(TransactionStatus.SUCCESS, results.get(0).status());
+        assertEquals(TransactionStatus.FAILED, results.get(1).status());
+        assertEquals(TransactionStatus.FAILED, results.get(2).status());
+        assertEquals(TransactionStatus.SUCCESS, results.get(3).status());
+        assertNotNull(results.get(3).transactionReference());
+
+        assertEquals(new BigDecimal("500.00"), bankAccountService.getAccountByAccountNumber(sender).getBalance());
+        assertEquals(new BigDecimal("500.00"), bankAccountService.getAccountByAccountNumber(receiver).getBalance());
+        assertEquals(4, transactionRepo.count());
+    }
+}
@@ -0,0 +1,40 @@
+package com.apostle.services.bankService;
+
+import com.apostle.utils.AccountNumbers;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AccountNumberAllocatorTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    public void testConstructor_rejectsBlockSizeBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new AccountNumberAllocator(mongoTemplate, 0));
+        assertThrows(IllegalArgumentException.class, () -> new AccountNumberAllocator(mongoTemplate, -5));
+    }
+
+    @Test
+    public void testNext_handsOutEachReservedBlockInOrder() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Document.class), eq(AccountNumberAllocator.COUNTERS_COLLECTION)))
+                .thenReturn(new Document("value", 2L), new Document("value", 4L));
+        AccountNumberAllocator allocator = new AccountNumberAllocator(mongoTemplate, 2);
+
+        assertEquals(AccountNumbers.format(0), allocator.next());
+        assertEquals(AccountNumbers.format(1), allocator.next());
+        assertEquals(AccountNumbers.format(2), allocator.next());
+
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Document.class), eq(AccountNumberAllocator.COUNTERS_COLLECTION));
+    }
+}
@@ -0,0 +1,262 @@
+package com.apostle.services.redisService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Redis is mocked and rebuild() is called directly, so each test controls exactly what a scan sees and when.
+public class TokenBlacklistServiceTest {
+
+    private static final String REVOKED = "eyJhbGciOiJIUzI1NiJ9.revoked";
+    private static final String VALID = "eyJhbGciOiJIUzI1NiJ9.valid";
+    private static final String LEGACY = "eyJhbGciOiJIUzI1NiJ9.legacy";
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<TokenBlacklistService> services = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        services.forEach(TokenBlacklistService::shutdown);
+    }
+
+    @Test
+    public void testIsTokenBlacklisted_beforeTheFirstScanAsksRedis() {
+        TokenBlacklistService service = node(true, 10_000);
+
+        assertFalse(service.isTokenBlacklisted(VALID));
+
+        verify(redisTemplate).hasKey("blacklist:" + VALID);
+    }
+
+    @Test
+    public void testIsTokenBlacklisted_tokenTheFilterHasNeverSeenSkipsRedis() {
+        TokenBlacklistService service = node(true, 10_000);
+        stubScan("blacklist:*", List.of("blacklist:" + REVOKED));
+        service.rebuild();
+
+        assertFalse(service.isTokenBlacklisted(VALID));
+
+        verify(redisTemplate, never()).hasKey(anyString());
+        assertEquals(1.0, checks("filtered"));
+    }
+
+    @Test
+    public void testIsTokenBlacklisted_filterHitIsConfirmedInRedisOnce() {
+        TokenBlacklistService service = node(true, 10_000);
+        stubScan("blacklist:*", List.of("blacklist:" + REVOKED));
+        service.rebuild();
+        when(redisTemplate.hasKey("blacklist:" + REVOKED)).thenReturn(true);
+
+        assertTrue(service.isTokenBlacklisted(REVOKED));
+        assertTrue(service.isTokenBlacklisted(REVOKED));
+
+        verify(redisTemplate, times(1)).hasKey("blacklist:" + REVOKED);
+        assertEquals(1.0, checks("revoked"));
+    }
+
+    @Test
+    public void testIsTokenBlacklisted_withFilterDisabledAlwaysAsksRedis() {
+        TokenBlacklistService service = node(false, 10_000);
+        when(redisTemplate.hasKey("blacklist:" + REVOKED)).thenReturn(true);
+
+        assertTrue(service.isTokenBlacklisted(REVOKED));
+        assertFalse(service.isTokenBlacklisted(VALID));
+
+        verify(redisTemplate).hasKey("blacklist:" + VALID);
+        verify(listenerContainer, never()).addMessageListener(any(), any(org.springframework.data.redis.listener.Topic.class));
+    }
+
+    @Test
+    public void testBlacklistToken_writesAndAnnouncesInOneCall() {
+        TokenBlacklistService service = node(true, 10_000);
+
+        service.blacklistToken(REVOKED, System.currentTimeMillis() + 60_000);
+
+        verify(redisTemplate, times(1)).execute(any(), eq(List.of("blacklist:" + REVOKED)),
+                anyString(), eq(TokenBlacklistService.CHANNEL), eq(REVOKED));
+        assertTrue(service.isTokenBlacklisted(REVOKED));
+        verify(redisTemplate, never()).hasKey(anyString());
+    }
+
+    @Test
+    public void testOnMessage_revocationOnAnotherNodeReachesThisNodesFilter() {
+        // No recently-revoked cache, so the answer has to come from the filter.
+        TokenBlacklistService thisNode = node(true, 0);
+        stubScan("blacklist:*", List.of());
+        thisNode.rebuild();
+
+        thisNode.onMessage(announcement(REVOKED), null);
+        when(redisTemplate.hasKey("blacklist:" + REVOKED)).thenReturn(true);
+
+        assertTrue(thisNode.isTokenBlacklisted(REVOKED));
+    }
+
+    @Test
+    public void testRebuild_revocationAnnouncedMidScanIsNotLost() {
+        TokenBlacklistService service = node(true, 0);
+        // The scan already passed the slot the new key lands in, so only the announcement carries it.
+        when(redisTemplate.scan(argThat((ScanOptions options) -> options != null && "blacklist:*".equals(options.getPattern()))))
+                .thenAnswer(call -> new ListCursor(List.of("blacklist:" + VALID + ".old"),
+                        () -> service.onMessage(announcement(REVOKED), null)));
+        when(redisTemplate.hasKey("blacklist:" + REVOKED)).thenReturn(true);
+
+        service.rebuild();
+
+        assertTrue(service.isTokenBlacklisted(REVOKED));
+        verify(redisTemplate).hasKey("blacklist:" + REVOKED);
+    }
+
+    @Test
+    public void testRebuild_failedScanLeavesChecksOnRedis() {
+        TokenBlacklistService service = node(true, 10_000);
+        when(redisTemplate.scan(argThat((ScanOptions options) -> options != null && "blacklist:*".equals(options.getPattern()))))
+                .thenThrow(new InvalidDataAccessApiUsageException("SCAN is not supported across the cluster"));
+
+        service.rebuild();
+
+        assertFalse(service.isTokenBlacklisted(VALID));
+        verify(redisTemplate).hasKey("blacklist:" + VALID);
+    }
+
+    @Test
+    public void testRebuild_renamesLegacyKeysOnlyOnce() {
+        TokenBlacklistService service = node(true, 10_000);
+        stubScan("eyJ*", List.of(LEGACY));
+        stubScan("blacklist:*", List.of());
+
+        service.rebuild();
+        service.rebuild();
+
+        verify(redisTemplate, times(1)).rename(LEGACY, "blacklist:" + LEGACY);
+        verify(redisTemplate, times(1)).scan(argThat((ScanOptions options) -> options != null && "eyJ*".equals(options.getPattern())));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRebuild_legacyKeyIsCopiedWhenRenameCrossesClusterSlots() {
+        TokenBlacklistService service = node(true, 10_000);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        stubScan("eyJ*", List.of(LEGACY));
+        stubScan("blacklist:*", List.of());
+        doThrow(new RedisSystemException("CROSSSLOT Keys in request don't hash to the same slot", null))
+                .when(redisTemplate).rename(LEGACY, "blacklist:" + LEGACY);
+        when(redisTemplate.getExpire(LEGACY, TimeUnit.MILLISECONDS)).thenReturn(5_000L);
+
+        service.rebuild();
+
+        verify(values).set("blacklist:" + LEGACY, "revoked", 5_000L, TimeUnit.MILLISECONDS);
+        verify(redisTemplate).delete(LEGACY);
+    }
+
+    @Test
+    public void testRebuild_legacyKeyThatExpiredMidMigrationIsSkipped() {
+        TokenBlacklistService service = node(true, 10_000);
+        stubScan("eyJ*", List.of(LEGACY));
+        stubScan("blacklist:*", List.of());
+        doThrow(new RedisSystemException("ERR no such key", null))
+                .when(redisTemplate).rename(LEGACY, "blacklist:" + LEGACY);
+        when(redisTemplate.getExpire(LEGACY, TimeUnit.MILLISECONDS)).thenReturn(-2L);
+
+        service.rebuild();
+
+        verify(redisTemplate, never()).opsForValue();
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    private TokenBlacklistService node(boolean filterEnabled, long recentMaxEntries) {
+        TokenBlacklistService service = new TokenBlacklistService(redisTemplate, listenerContainer, meterRegistry,
+                filterEnabled, 1_000, 0.001, 60, recentMaxEntries, 900_000);
+        services.add(service);
+        stubScan("eyJ*", List.of());
+        return service;
+    }
+
+    private void stubScan(String pattern, List<String> keys) {
+        when(redisTemplate.scan(argThat((ScanOptions options) -> options != null && pattern.equals(options.getPattern()))))
+                .thenAnswer(call -> new ListCursor(keys, () -> { }));
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("token.blacklist.checks").tag("result", result).counter().count();
+    }
+
+    private static DefaultMessage announcement(String token) {
+        return new DefaultMessage(TokenBlacklistService.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Runs a callback after handing out each key, standing in for whatever happens while a real scan is under way.
+    private static class ListCursor implements Cursor<String> {
+
+        private final Iterator<String> keys;
+        private final Runnable afterEachKey;
+        private boolean closed;
+
+        ListCursor(List<String> keys, Runnable afterEachKey) {
+            this.keys = keys.iterator();
+            this.afterEachKey = afterEachKey;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keys.hasNext();
+        }
+
+        @Override
+        public String next() {
+            String key = keys.next();
+            afterEachKey.run();
+            return key;
+        }
+
+        @Override
+        public CursorId getId() {
+            return CursorId.initial();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public long getCursorId() {
+            return 0;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public long getPosition() {
+            return 0;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
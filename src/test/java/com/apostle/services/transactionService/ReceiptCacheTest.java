@@ -0,0 +1,27 @@
+package com.apostle.services.transactionService;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class ReceiptCacheTest {
+
+    @Test
+    public void testConstructor_rejectsZeroMaxEntries() {
+        assertThrows(IllegalArgumentException.class, () -> cache(0, 1024));
+    }
+
+    @Test
+    public void testConstructor_rejectsZeroMaxBytes() {
+        assertThrows(IllegalArgumentException.class, () -> cache(10, 0));
+    }
+
+    private static ReceiptCache cache(long maxEntries, long maxBytes) {
+        return new ReceiptCache(mock(StringRedisTemplate.class), new ObjectMapper(), new SimpleMeterRegistry(),
+                maxEntries, maxBytes, false, 24);
+    }
+}
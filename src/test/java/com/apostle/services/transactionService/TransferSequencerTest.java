@@ -0,0 +1,272 @@
+package com.apostle.services.transactionService;
+
+import com.apostle.data.model.AccountType;
+import com.apostle.data.model.BankAccount;
+import com.apostle.exceptions.InsufficientBalanceException;
+import com.apostle.exceptions.PartialCreditException;
+import com.apostle.services.bankService.BankAccountService;
+import com.apostle.utils.AccountNumbers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+// Balances live in a map behind a mocked BankAccountService; every call on it is recorded in the order it happens.
+public class TransferSequencerTest {
+
+    private static final String ACCOUNT = AccountNumbers.format(1);
+    private static final String OTHER = AccountNumbers.format(2);
+    private static final String THIRD = AccountNumbers.format(3);
+
+    private final BankAccountService bankService = mock(BankAccountService.class);
+    private final Map<String, BigDecimal> balances = new HashMap<>();
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch firstCallStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstCall = new CountDownLatch(1);
+    private TransferSequencer sequencer;
+
+    @AfterEach
+    public void tearDown() {
+        releaseFirstCall.countDown();
+        if (sequencer != null) sequencer.stop();
+    }
+
+    @Test
+    public void testStart_rejectsZeroLanes() {
+        TransferSequencer zeroLanes = sequencer(true, 0, 64);
+
+        assertThrows(IllegalArgumentException.class, zeroLanes::start);
+    }
+
+    @Test
+    public void testStart_rejectsZeroMaxGroupSize() {
+        TransferSequencer emptyGroups = sequencer(true, 1, 0);
+
+        assertThrows(IllegalArgumentException.class, emptyGroups::start);
+    }
+
+    @Test
+    public void testStart_disabledSequencerIgnoresLaneCount() {
+        TransferSequencer disabled = sequencer(false, 0, 64);
+
+        assertDoesNotThrow(disabled::start);
+        assertFalse(disabled.isActive());
+    }
+
+    @Test
+    public void testChangesToOneAccountApplyInArrivalOrder() throws Exception {
+        sequencer = startedSequencer(64);
+        balances.put(ACCOUNT, new BigDecimal("100.00"));
+
+        CompletableFuture<BankAccount> first = submit(() -> sequencer.debit(ACCOUNT, new BigDecimal("100.00")));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        // Queued behind the first debit, so all four are drained as one group.
+        CompletableFuture<BankAccount> credit = queue(() -> sequencer.credit(ACCOUNT, new BigDecimal("50.00")));
+        CompletableFuture<BankAccount> overdraw = queue(() -> sequencer.debit(ACCOUNT, new BigDecimal("60.00")));
+        CompletableFuture<BankAccount> topUp = queue(() -> sequencer.credit(ACCOUNT, new BigDecimal("10.00")));
+        CompletableFuture<BankAccount> spend = queue(() -> sequencer.debit(ACCOUNT, new BigDecimal("60.00")));
+        releaseFirstCall.countDown();
+
+        assertEquals(new BigDecimal("0.00"), first.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(new BigDecimal("50.00"), credit.get(5, TimeUnit.SECONDS).getBalance());
+        // Applied before the top-up, so it still sees 50.00 and fails.
+        Exception rejected = assertThrows(Exception.class, () -> overdraw.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientBalanceException.class, rejected.getCause());
+        assertEquals(new BigDecimal("60.00"), topUp.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(new BigDecimal("0.00"), spend.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(List.of("debit 100.00", "credit 50.00", "debit 60.00", "credit 10.00", "debit 60.00"), calls);
+    }
+
+    @Test
+    public void testCreditOnlyAccountInAGroupGetsOneSummedWrite() throws Exception {
+        sequencer = startedSequencer(64);
+        balances.put(ACCOUNT, new BigDecimal("100.00"));
+        balances.put(OTHER, new BigDecimal("0.00"));
+
+        CompletableFuture<BankAccount> first = submit(() -> sequencer.debit(ACCOUNT, new BigDecimal("1.00")));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BankAccount> one = queue(() -> sequencer.credit(OTHER, new BigDecimal("5.00")));
+        CompletableFuture<BankAccount> two = queue(() -> sequencer.credit(OTHER, new BigDecimal("7.00")));
+        releaseFirstCall.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("12.00"), one.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(new BigDecimal("12.00"), two.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(List.of("debit 1.00", "creditAll " + OTHER + " 12.00"), calls);
+    }
+
+    @Test
+    public void testPartialBulkCreditCompletesTheAccountsItReached() throws Exception {
+        sequencer = startedSequencer(64);
+        balances.put(ACCOUNT, new BigDecimal("100.00"));
+        balances.put(OTHER, new BigDecimal("0.00"));
+        balances.put(THIRD, new BigDecimal("0.00"));
+        PartialCreditException stopped = new PartialCreditException("Bulk credit stopped after 1 accounts", List.of(OTHER), null);
+        doAnswer(call -> {
+            calls.add("creditAll");
+            balances.merge(OTHER, new BigDecimal("12.00"), BigDecimal::add);
+            throw stopped;
+        }).when(bankService).creditAll(anyMap());
+
+        CompletableFuture<BankAccount> first = submit(() -> sequencer.debit(ACCOUNT, new BigDecimal("1.00")));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BankAccount> landed = queue(() -> sequencer.credit(OTHER, new BigDecimal("5.00")));
+        CompletableFuture<BankAccount> alsoLanded = queue(() -> sequencer.credit(OTHER, new BigDecimal("7.00")));
+        CompletableFuture<BankAccount> missed = queue(() -> sequencer.credit(THIRD, new BigDecimal("2.00")));
+        CompletableFuture<BankAccount> alsoMissed = queue(() -> sequencer.credit(THIRD, new BigDecimal("3.00")));
+        releaseFirstCall.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("12.00"), landed.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(new BigDecimal("12.00"), alsoLanded.get(5, TimeUnit.SECONDS).getBalance());
+        for (CompletableFuture<BankAccount> failed : List.of(missed, alsoMissed)) {
+            Exception error = assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS));
+            assertSame(stopped, error.getCause());
+        }
+    }
+
+    @Test
+    public void testCreditsThatLandedCompleteWhenTheBulkReadBackFails() throws Exception {
+        sequencer = startedSequencer(64);
+        balances.put(ACCOUNT, new BigDecimal("100.00"));
+        balances.put(OTHER, new BigDecimal("0.00"));
+        doThrow(new DataAccessResourceFailureException("read timed out"))
+                .when(bankService).getAccountsByAccountNumbers(any());
+        doAnswer(call -> account(OTHER)).when(bankService).getAccountByAccountNumber(OTHER);
+
+        CompletableFuture<BankAccount> first = submit(() -> sequencer.debit(ACCOUNT, new BigDecimal("1.00")));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BankAccount> one = queue(() -> sequencer.credit(OTHER, new BigDecimal("5.00")));
+        CompletableFuture<BankAccount> two = queue(() -> sequencer.credit(OTHER, new BigDecimal("7.00")));
+        releaseFirstCall.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("12.00"), one.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(new BigDecimal("12.00"), two.get(5, TimeUnit.SECONDS).getBalance());
+        verify(bankService, times(1)).creditAll(anyMap());
+    }
+
+    @Test
+    public void testChangesSubmittedAfterStopAreRefused() throws Exception {
+        sequencer = startedSequencer(64);
+        balances.put(ACCOUNT, new BigDecimal("100.00"));
+        sequencer.stop();
+
+        CompletableFuture<BankAccount> late = submit(() -> sequencer.credit(ACCOUNT, new BigDecimal("1.00")));
+
+        Exception error = assertThrows(Exception.class, () -> late.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertFalse(sequencer.isActive());
+        verify(bankService, never()).credit(any(), any());
+    }
+
+    @Test
+    public void testGroupSizeOfOneStillKeepsArrivalOrder() throws Exception {
+        sequencer = startedSequencer(1);
+        balances.put(ACCOUNT, new BigDecimal("0.00"));
+
+        CompletableFuture<BankAccount> first = submit(() -> sequencer.credit(ACCOUNT, new BigDecimal("1.00")));
+        assertTrue(firstCallStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<BankAccount> second = queue(() -> sequencer.credit(ACCOUNT, new BigDecimal("2.00")));
+        CompletableFuture<BankAccount> third = queue(() -> sequencer.debit(ACCOUNT, new BigDecimal("3.00")));
+        releaseFirstCall.countDown();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        assertEquals(new BigDecimal("0.00"), third.get(5, TimeUnit.SECONDS).getBalance());
+        assertEquals(List.of("credit 1.00", "credit 2.00", "debit 3.00"), calls);
+    }
+
+    private TransferSequencer startedSequencer(int maxGroupSize) {
+        stubBankService();
+        TransferSequencer started = sequencer(true, 1, maxGroupSize);
+        started.start();
+        return started;
+    }
+
+    private TransferSequencer sequencer(boolean enabled, int lanes, int maxGroupSize) {
+        TransferSequencer created = new TransferSequencer(bankService);
+        ReflectionTestUtils.setField(created, "enabled", enabled);
+        ReflectionTestUtils.setField(created, "laneCount", lanes);
+        ReflectionTestUtils.setField(created, "maxGroupSize", maxGroupSize);
+        return created;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubBankService() {
+        when(bankService.debit(any(), any())).thenAnswer(call -> apply("debit", call.getArgument(0), call.<BigDecimal>getArgument(1).negate()));
+        when(bankService.credit(any(), any())).thenAnswer(call -> apply("credit", call.getArgument(0), call.getArgument(1)));
+        doAnswer(call -> {
+            Map<String, BigDecimal> amounts = call.getArgument(0);
+            amounts.forEach((accountNumber, amount) -> {
+                calls.add("creditAll " + accountNumber + " " + amount.toPlainString());
+                balances.merge(accountNumber, amount, BigDecimal::add);
+            });
+            return null;
+        }).when(bankService).creditAll(anyMap());
+        when(bankService.getAccountsByAccountNumbers(any())).thenAnswer(call ->
+                call.<Collection<String>>getArgument(0).stream().map(this::account).toList());
+    }
+
+    // The first call holds the lane until the test has queued everything behind it.
+    private BankAccount apply(String kind, String accountNumber, BigDecimal delta) throws InterruptedException {
+        if (firstCallStarted.getCount() > 0) {
+            firstCallStarted.countDown();
+            assertTrue(releaseFirstCall.await(5, TimeUnit.SECONDS));
+        }
+        calls.add(kind + " " + delta.abs().toPlainString());
+        BigDecimal updated = balances.get(accountNumber).add(delta);
+        if (updated.signum() < 0) throw new InsufficientBalanceException("Insufficient Balance");
+        balances.put(accountNumber, updated);
+        return account(accountNumber);
+    }
+
+    private BankAccount account(String accountNumber) {
+        return BankAccount.builder()
+                .id("id-" + accountNumber)
+                .accountNumber(accountNumber)
+                .balance(balances.get(accountNumber))
+                .accountType(AccountType.SAVINGS)
+                .build();
+    }
+
+    private static CompletableFuture<BankAccount> submit(Supplier<BankAccount> change) {
+        return CompletableFuture.supplyAsync(change, runnable -> new Thread(runnable).start());
+    }
+
+    // Submits from its own thread and waits until the change is on the lane's queue, which fixes arrival order.
+    private CompletableFuture<BankAccount> queue(Supplier<BankAccount> change) throws InterruptedException {
+        BlockingQueue<?> laneQueue = laneQueue();
+        int before = laneQueue.size();
+        CompletableFuture<BankAccount> result = submit(change);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (laneQueue.size() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(before + 1, laneQueue.size());
+        return result;
+    }
+
+    private BlockingQueue<?> laneQueue() {
+        Object[] lanes = (Object[]) ReflectionTestUtils.getField(sequencer, "lanes");
+        return (BlockingQueue<?>) ReflectionTestUtils.getField(lanes[0], "queue");
+    }
+}